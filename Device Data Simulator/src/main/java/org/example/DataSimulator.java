@@ -19,6 +19,8 @@ import java.util.function.Consumer;
 
 public class DataSimulator {
     private static final String QUEUE_NAME = "external.data.collection.queue";
+    // Set to the consistent-hash exchange (external.data.sharded.exchange) when the services run the sharded topology
+    private static final String EXCHANGE_NAME = System.getenv().getOrDefault("SIMULATOR_EXCHANGE", "");
     private static final String HOST = "localhost";
     private static final int PORT = 5672;
     private static final String USERNAME = "simulator-user";
@@ -74,7 +76,9 @@ public class DataSimulator {
 
             connection = factory.newConnection();
             channel = connection.createChannel();
-            channel.queueDeclare(QUEUE_NAME, true, false, false, null);
+            if (EXCHANGE_NAME.isEmpty()) {
+                channel.queueDeclare(QUEUE_NAME, true, false, false, null);
+            }
 
             log("Connected to RabbitMQ");
 
@@ -94,7 +98,16 @@ public class DataSimulator {
                         measurement.put("value", generateRealisticConsumption(hour));
 
                         String message = objectMapper.writeValueAsString(measurement);
-                        channel.basicPublish("", QUEUE_NAME, properties, message.getBytes());
+                        // Lets Monitoring report how long measurements waited before being processed
+                        AMQP.BasicProperties published = properties.builder()
+                                .headers(Map.of("published_at", System.currentTimeMillis()))
+                                .build();
+                        if (EXCHANGE_NAME.isEmpty()) {
+                            channel.basicPublish("", QUEUE_NAME, published, message.getBytes());
+                        } else {
+                            // The exchange hashes the routing key, so each device always lands on the same replica
+                            channel.basicPublish(EXCHANGE_NAME, deviceId.toString(), published, message.getBytes());
+                        }
                         sentCount++;
 
                         log("Sent: " + timestamp.toLocalTime() + " -> " + measurement.get("value") + "W");
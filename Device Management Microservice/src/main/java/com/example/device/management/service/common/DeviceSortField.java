@@ -0,0 +1,20 @@
+package com.example.device.management.service.common;
+
+public enum DeviceSortField {
+    NAME("name"),
+    ENERGY_CLASS("energyClass");
+
+    private final String property;
+
+    DeviceSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static DeviceSortField fromString(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
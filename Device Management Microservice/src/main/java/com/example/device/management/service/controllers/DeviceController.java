@@ -2,8 +2,13 @@ package com.example.device.management.service.controllers;
 
 import com.example.device.management.service.common.UserRole;
 import com.example.device.management.service.common.security.RequireRole;
+import com.example.device.management.service.dtos.DeviceCountsDTO;
 import com.example.device.management.service.dtos.DeviceDTO;
+import com.example.device.management.service.dtos.DevicePageDTO;
+import com.example.device.management.service.dtos.DeviceSnapshotPageDTO;
+import com.example.device.management.service.dtos.DeviceSummaryPageDTO;
 import com.example.device.management.service.dtos.UserDTO;
+import com.example.device.management.service.dtos.UserDeviceAssociationDTO;
 import com.example.device.management.service.services.DeviceService;
 import com.example.device.management.service.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -64,6 +69,104 @@ public class DeviceController {
         return ResponseEntity.ok(deviceService.getUnassignedDevices());
     }
 
+    @GetMapping("/user/get-devices/page")
+    @RequireRole({UserRole.USER, UserRole.ADMIN})
+    @Operation(summary = "Get a page of devices - Requires JWT (User/Admin)",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(
+            responseCode = "200",
+            description = "Page of devices ordered by id retrieved successfully",
+            content = @Content(schema = @Schema(implementation = DevicePageDTO.class))
+    )
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    public ResponseEntity<DevicePageDTO> getDevicesPage(
+            @Parameter(description = "Zero-based page number")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Devices per page, capped by the server")
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(deviceService.getDevicesPage(page, size));
+    }
+
+    @GetMapping("/admin/get-unassigned-devices/page")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "Get a page of unassigned devices - Requires JWT (Admin only)",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(
+            responseCode = "200",
+            description = "Page of unassigned devices ordered by id retrieved successfully",
+            content = @Content(schema = @Schema(implementation = DevicePageDTO.class))
+    )
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    public ResponseEntity<DevicePageDTO> getUnassignedDevicesPage(
+            @Parameter(description = "Zero-based page number")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Devices per page, capped by the server")
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(deviceService.getUnassignedDevicesPage(page, size));
+    }
+
+    @GetMapping("/admin/list-devices")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "List devices page by page with filtering and sorting - Requires JWT (Admin only)",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(
+            responseCode = "200",
+            description = "Page of devices retrieved successfully. Pass nextCursor as cursor to get the next page",
+            content = @Content(schema = @Schema(implementation = DeviceSummaryPageDTO.class))
+    )
+    @ApiResponse(responseCode = "400", description = "Unknown sort field or direction, or invalid cursor")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    public ResponseEntity<DeviceSummaryPageDTO> listDevices(
+            @Parameter(description = "Part of the name, case insensitive")
+            @RequestParam(required = false) String name,
+            @Parameter(description = "Part of the energy class, case insensitive")
+            @RequestParam(required = false) String energyClass,
+            @Parameter(description = "Only devices of this owner (UUID format)")
+            @RequestParam(required = false) UUID ownerId,
+            @Parameter(description = "name or energy-class")
+            @RequestParam(defaultValue = "name") String sort,
+            @Parameter(description = "asc or desc")
+            @RequestParam(defaultValue = "asc") String direction,
+            @Parameter(description = "nextCursor of the previous page, omitted for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Devices per page, capped by the server")
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(deviceService.getDeviceSummaries(name, energyClass, ownerId, sort, direction, cursor, size));
+    }
+
+    @GetMapping("/admin/device-counts")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "Count all and unassigned devices - Requires JWT (Admin only)",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(
+            responseCode = "200",
+            description = "Device counts retrieved successfully",
+            content = @Content(schema = @Schema(implementation = DeviceCountsDTO.class))
+    )
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    public ResponseEntity<DeviceCountsDTO> getDeviceCounts() {
+        return ResponseEntity.ok(deviceService.getDeviceCounts());
+    }
+
+    // Not routed by the gateway, only reachable by the other services
+    @GetMapping("/internal/devices/snapshot")
+    @Operation(summary = "Get a page of all devices with their versions - Internal")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Page of devices ordered by id. Pass nextAfter as after to get the next page",
+            content = @Content(schema = @Schema(implementation = DeviceSnapshotPageDTO.class))
+    )
+    public ResponseEntity<DeviceSnapshotPageDTO> getDeviceSnapshot(
+            @Parameter(description = "nextAfter of the previous page, omitted for the first page")
+            @RequestParam(required = false) UUID after,
+            @Parameter(description = "Devices per page, capped by the server")
+            @RequestParam(defaultValue = "500") int size) {
+        return ResponseEntity.ok(deviceService.getDeviceSnapshot(after, size));
+    }
+
     @GetMapping("/user/get-device/{id}")
     @RequireRole({UserRole.USER, UserRole.ADMIN})
     @Operation(summary = "Get device by ID - Requires JWT (User/Admin)",
@@ -121,6 +224,42 @@ public class DeviceController {
         return ResponseEntity.created(location).build();
     }
 
+    @PostMapping("/admin/create-devices")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "Create many devices at once - Requires JWT (Admin only)",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "200", description = "Devices created successfully. Returns their ids in request order")
+    @ApiResponse(responseCode = "400", description = "Invalid device or too many devices in one request")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    public ResponseEntity<List<UUID>> createDevices(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Devices to create",
+                    required = true
+            )
+            @RequestBody List<DeviceDTO> deviceDTOs) {
+        return ResponseEntity.ok(deviceService.insertAll(deviceDTOs));
+    }
+
+    @PostMapping("/admin/add-user-devices")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "Assign many devices to users at once - Requires JWT (Admin only)",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "204", description = "All devices assigned successfully")
+    @ApiResponse(responseCode = "400", description = "Too many assignments in one request")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    @ApiResponse(responseCode = "404", description = "A user or device was not found, nothing was assigned")
+    public ResponseEntity<Void> addUserDevices(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "User and device id pairs",
+                    required = true
+            )
+            @RequestBody List<UserDeviceAssociationDTO> associations) {
+        userService.insertUserDevices(associations);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/admin/for-user/{userId}/add-device/{deviceId}")
     @RequireRole({UserRole.ADMIN})
     @Operation(summary = "Add device to user - Requires JWT (Admin only)",
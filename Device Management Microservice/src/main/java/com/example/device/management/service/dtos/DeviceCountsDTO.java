@@ -0,0 +1,38 @@
+package com.example.device.management.service.dtos;
+
+public class DeviceCountsDTO {
+    private long total;
+    private long unassigned;
+
+    public DeviceCountsDTO() {
+    }
+
+    public DeviceCountsDTO(long total, long unassigned) {
+        this.total = total;
+        this.unassigned = unassigned;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getUnassigned() {
+        return unassigned;
+    }
+
+    public void setUnassigned(long unassigned) {
+        this.unassigned = unassigned;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceCountsDTO{" +
+                "total=" + total +
+                ", unassigned=" + unassigned +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.device.management.service.dtos;
+
+import java.util.List;
+
+public class DevicePageDTO {
+    private List<DeviceDTO> items;
+    private int page;
+    private int size;
+    private long totalElements;
+
+    public DevicePageDTO() {
+    }
+
+    public DevicePageDTO(List<DeviceDTO> items, int page, int size, long totalElements) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+    }
+
+    public List<DeviceDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<DeviceDTO> items) {
+        this.items = items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    @Override
+    public String toString() {
+        return "DevicePageDTO{" +
+                "items=" + items +
+                ", page=" + page +
+                ", size=" + size +
+                ", totalElements=" + totalElements +
+                '}';
+    }
+}
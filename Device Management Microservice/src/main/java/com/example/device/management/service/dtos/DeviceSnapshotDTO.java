@@ -0,0 +1,14 @@
+package com.example.device.management.service.dtos;
+
+import java.util.UUID;
+
+/**
+ * What the monitoring replicas keep of a device, read as a projection for the resync snapshot.
+ */
+public interface DeviceSnapshotDTO {
+    UUID getId();
+
+    Integer getMaximumConsumptionValue();
+
+    long getVersion();
+}
@@ -0,0 +1,42 @@
+package com.example.device.management.service.dtos;
+
+import java.util.List;
+import java.util.UUID;
+
+public class DeviceSnapshotPageDTO {
+    private List<DeviceSnapshotDTO> items;
+    // Pass as "after" to get the next page, null on the last page
+    private UUID nextAfter;
+
+    public DeviceSnapshotPageDTO() {
+    }
+
+    public DeviceSnapshotPageDTO(List<DeviceSnapshotDTO> items, UUID nextAfter) {
+        this.items = items;
+        this.nextAfter = nextAfter;
+    }
+
+    public List<DeviceSnapshotDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<DeviceSnapshotDTO> items) {
+        this.items = items;
+    }
+
+    public UUID getNextAfter() {
+        return nextAfter;
+    }
+
+    public void setNextAfter(UUID nextAfter) {
+        this.nextAfter = nextAfter;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceSnapshotPageDTO{" +
+                "items=" + items +
+                ", nextAfter=" + nextAfter +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.device.management.service.dtos;
+
+import java.util.UUID;
+
+/**
+ * The columns of the admin device list. Fetched as a projection, so neither the description nor the owner is read.
+ */
+public interface DeviceSummaryDTO {
+    UUID getId();
+
+    String getName();
+
+    String getEnergyClass();
+
+    Integer getMaximumConsumptionValue();
+}
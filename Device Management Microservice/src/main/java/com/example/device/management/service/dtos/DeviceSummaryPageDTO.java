@@ -0,0 +1,41 @@
+package com.example.device.management.service.dtos;
+
+import java.util.List;
+
+public class DeviceSummaryPageDTO {
+    private List<DeviceSummaryDTO> items;
+    // Pass as "cursor" with the same filters and sort to get the next page, null on the last page
+    private String nextCursor;
+
+    public DeviceSummaryPageDTO() {
+    }
+
+    public DeviceSummaryPageDTO(List<DeviceSummaryDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<DeviceSummaryDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<DeviceSummaryDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceSummaryPageDTO{" +
+                "items=" + items +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
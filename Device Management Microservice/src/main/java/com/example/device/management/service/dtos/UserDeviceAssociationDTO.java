@@ -1,4 +1,40 @@
 package com.example.device.management.service.dtos;
 
+import java.util.UUID;
+
 public class UserDeviceAssociationDTO {
+    private UUID userId;
+    private UUID deviceId;
+
+    public UserDeviceAssociationDTO() {
+    }
+
+    public UserDeviceAssociationDTO(UUID userId, UUID deviceId) {
+        this.userId = userId;
+        this.deviceId = deviceId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(UUID deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    @Override
+    public String toString() {
+        return "UserDeviceAssociationDTO{" +
+                "userId=" + userId +
+                ", deviceId=" + deviceId +
+                '}';
+    }
 }
@@ -3,6 +3,7 @@ package com.example.device.management.service.entities;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
@@ -13,7 +14,8 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "devices")
+// user_id is indexed for the unassigned and per-user listings
+@Table(name = "devices", indexes = @Index(name = "idx_devices_user_id", columnList = "user_id"))
 public class Device implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
@@ -40,9 +42,15 @@ public class Device implements Serializable {
     @NotBlank(message = "description is required")
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
+    // Sent with every device event, so consumers can drop events older than what they already have
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Device() {}
     public Device(String name, Integer maximumConsumptionValue, String energyClass, String description) {
         this.name = name;
@@ -99,6 +107,10 @@ public class Device implements Serializable {
         this.description = description;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public User getUser() {
         return user;
     }
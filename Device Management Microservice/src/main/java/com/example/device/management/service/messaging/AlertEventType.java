@@ -0,0 +1,5 @@
+package com.example.device.management.service.messaging;
+
+public enum AlertEventType {
+    TRIGGERED, REARMED
+}
@@ -28,6 +28,10 @@ public class MessageConsumer {
 
     @RabbitListener(queues = "${rabbitmq.queue.alert}")
     public void receiveDeviceAlert(DeviceAlertMessageType message) {
+        // Re-arm events only reset Monitoring's alert state, users are notified when the threshold is crossed.
+        if (message.getType() == AlertEventType.REARMED) {
+            return;
+        }
         userService.notifyUser(message.getDeviceId(), message.getValue(), message.getTimestamp());
     }
 }
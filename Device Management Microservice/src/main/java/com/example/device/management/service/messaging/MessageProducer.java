@@ -1,12 +1,21 @@
 package com.example.device.management.service.messaging;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
 
 @Service
 public class MessageProducer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageProducer.class);
     private final RabbitTemplate rabbitTemplate;
 
     @Value("${rabbitmq.queue.monitoring}")
@@ -15,13 +24,51 @@ public class MessageProducer {
     @Value("${rabbitmq.queue.user.notification}")
     private String USER_NOTIFICATION_QUEUE;
 
+    @Value("${rabbitmq.confirm-timeout-ms}")
+    private long CONFIRM_TIMEOUT_MS;
+
     @Autowired
     public MessageProducer(RabbitTemplate rabbitTemplate) {
         this.rabbitTemplate = rabbitTemplate;
     }
 
-    public void sendToMonitoringQueue(DeviceIdMessageType message) {
-        rabbitTemplate.convertAndSend(MONITORING_QUEUE, message);
+    /**
+     * Publishes the message once the current transaction has committed. A versioned event sent before a rollback
+     * would leave Monitoring on a version that Device Management reuses for its next change, which Monitoring
+     * then rejects as stale.
+     */
+    public void sendToMonitoringQueueAfterCommit(DeviceIdMessageType message) {
+        sendAllToMonitoringQueueAfterCommit(List.of(message));
+    }
+
+    /**
+     * Publishes all the messages on one channel once the current transaction has committed, so Monitoring never
+     * hears of rows that were rolled back. The broker confirms them in one wait. A failure is only logged, the
+     * rows are committed by then and Monitoring picks them up on its next device resync.
+     */
+    public void sendAllToMonitoringQueueAfterCommit(Collection<DeviceIdMessageType> messages) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sendAllToMonitoringQueue(messages);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sendAllToMonitoringQueue(messages);
+            }
+        });
+    }
+
+    private void sendAllToMonitoringQueue(Collection<DeviceIdMessageType> messages) {
+        try {
+            rabbitTemplate.invoke(operations -> {
+                messages.forEach(message -> operations.convertAndSend(MONITORING_QUEUE, message));
+                operations.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+                return null;
+            });
+        } catch (AmqpException e) {
+            LOGGER.error("Publishing {} device events to monitoring was not confirmed", messages.size(), e);
+        }
     }
 
     public void sendToUserNotificationQueue(UserNotificationMessageType message) {
@@ -1,5 +1,5 @@
 package com.example.device.management.service.messaging;
 
 public enum OperationType {
-    INSERT, DELETE
+    INSERT, UPDATE, DELETE
 }
\ No newline at end of file
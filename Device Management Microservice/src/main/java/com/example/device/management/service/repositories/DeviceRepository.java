@@ -1,9 +1,49 @@
 package com.example.device.management.service.repositories;
 
+import com.example.device.management.service.dtos.DeviceSnapshotDTO;
+import com.example.device.management.service.dtos.DeviceSummaryDTO;
 import com.example.device.management.service.entities.Device;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface DeviceRepository extends JpaRepository<Device, UUID> {
+
+    List<Device> findByUserIsNull();
+
+    Page<Device> findByUserIsNull(Pageable pageable);
+
+    List<Device> findByUserId(UUID userId);
+
+    long countByUserIsNull();
+
+    Window<DeviceSummaryDTO> findByNameContainingIgnoreCaseAndEnergyClassContainingIgnoreCase(
+            String name, String energyClass, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<DeviceSummaryDTO> findByNameContainingIgnoreCaseAndEnergyClassContainingIgnoreCaseAndUserId(
+            String name, String energyClass, UUID userId, ScrollPosition position, Sort sort, Limit limit);
+
+    List<DeviceSnapshotDTO> findAllByOrderById(Limit limit);
+
+    List<DeviceSnapshotDTO> findByIdGreaterThanOrderById(UUID id, Limit limit);
+
+    @Query("SELECT d.id AS deviceId, u.id AS userId FROM Device d LEFT JOIN d.user u")
+    List<DeviceOwner> findAllOwners();
+
+    @Query("SELECT d.id AS deviceId, u.id AS userId FROM Device d LEFT JOIN d.user u WHERE d.id = :deviceId")
+    List<DeviceOwner> findOwner(UUID deviceId);
+
+    interface DeviceOwner {
+        UUID getDeviceId();
+
+        UUID getUserId();
+    }
 }
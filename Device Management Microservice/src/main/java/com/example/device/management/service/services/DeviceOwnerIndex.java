@@ -0,0 +1,111 @@
+package com.example.device.management.service.services;
+
+import com.example.device.management.service.entities.Device;
+import com.example.device.management.service.handlers.exceptions.model.ResourceNotFoundException;
+import com.example.device.management.service.repositories.DeviceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of device id to owner id, so alerts can be fanned out without touching the database.
+ * Built at startup and updated by every assignment change once its transaction has committed; a device
+ * missing from the index is looked up once and then kept.
+ */
+@Service
+public class DeviceOwnerIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceOwnerIndex.class);
+
+    // Marks a known device without an owner, ConcurrentHashMap does not take null values.
+    private static final UUID UNASSIGNED = new UUID(0, 0);
+
+    private final DeviceRepository deviceRepository;
+    private final Map<UUID, UUID> owners = new ConcurrentHashMap<>();
+    // Bumped by every removal, so a lookup that raced with a delete is not kept
+    private final AtomicLong removals = new AtomicLong();
+
+    @Autowired
+    public DeviceOwnerIndex(DeviceRepository deviceRepository) {
+        this.deviceRepository = deviceRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        deviceRepository.findAllOwners().forEach(owner -> owners.putIfAbsent(owner.getDeviceId(), toValue(owner.getUserId())));
+        LOGGER.info("Device owner index built with {} devices", owners.size());
+    }
+
+    /**
+     * @return the owner of the device, empty if it is not assigned to anyone
+     */
+    public Optional<UUID> getOwner(UUID deviceId) {
+        UUID owner = owners.get(deviceId);
+        if (owner == null) {
+            owner = load(deviceId);
+        }
+        return owner.equals(UNASSIGNED) ? Optional.empty() : Optional.of(owner);
+    }
+
+    /**
+     * Records the device's new owner, or no owner when userId is null, once the current transaction commits.
+     */
+    public void assign(UUID deviceId, UUID userId) {
+        afterCommit(() -> owners.put(deviceId, toValue(userId)));
+    }
+
+    public void remove(UUID deviceId) {
+        afterCommit(() -> {
+            removals.incrementAndGet();
+            owners.remove(deviceId);
+        });
+    }
+
+    private UUID load(UUID deviceId) {
+        long removal = removals.get();
+        List<DeviceRepository.DeviceOwner> loaded = deviceRepository.findOwner(deviceId);
+        if (loaded.isEmpty()) {
+            LOGGER.error("Device with id {} was not found in db", deviceId);
+            throw new ResourceNotFoundException(Device.class.getSimpleName() + " with id: " + deviceId);
+        }
+        // A change that committed while loading has already been put and wins over the loaded value.
+        UUID owner = toValue(loaded.getFirst().getUserId());
+        UUID previous = owners.putIfAbsent(deviceId, owner);
+        if (previous != null) {
+            return previous;
+        }
+        // A removal bumps the counter before removing, so either it is seen here or it removed the loaded value.
+        if (removals.get() != removal) {
+            owners.remove(deviceId, owner);
+        }
+        return owner;
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static UUID toValue(UUID userId) {
+        return userId != null ? userId : UNASSIGNED;
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.device.management.service.services;
 
+import com.example.device.management.service.common.DeviceSortField;
+import com.example.device.management.service.dtos.DeviceCountsDTO;
 import com.example.device.management.service.dtos.DeviceDTO;
+import com.example.device.management.service.dtos.DevicePageDTO;
+import com.example.device.management.service.dtos.DeviceSnapshotDTO;
+import com.example.device.management.service.dtos.DeviceSnapshotPageDTO;
+import com.example.device.management.service.dtos.DeviceSummaryDTO;
+import com.example.device.management.service.dtos.DeviceSummaryPageDTO;
 import com.example.device.management.service.dtos.builders.DeviceBuilder;
 import com.example.device.management.service.entities.Device;
 import com.example.device.management.service.entities.User;
+import com.example.device.management.service.handlers.exceptions.model.BadRequestException;
 import com.example.device.management.service.handlers.exceptions.model.ResourceNotFoundException;
 import com.example.device.management.service.messaging.DeviceIdMessageType;
 import com.example.device.management.service.messaging.MessageProducer;
@@ -13,10 +21,22 @@ import com.example.device.management.service.repositories.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -27,12 +47,21 @@ public class DeviceService {
     private final DeviceRepository deviceRepository;
     private final UserRepository userRepository;
     private final MessageProducer messageProducer;
+    private final DeviceOwnerIndex deviceOwnerIndex;
+
+    @Value("${device.max-page-size}")
+    private int MAX_PAGE_SIZE;
+
+    @Value("${device.max-bulk-size}")
+    private int MAX_BULK_SIZE;
 
     @Autowired
-    public DeviceService(DeviceRepository deviceRepository, UserRepository userRepository, MessageProducer messageProducer) {
+    public DeviceService(DeviceRepository deviceRepository, UserRepository userRepository, MessageProducer messageProducer,
+                         DeviceOwnerIndex deviceOwnerIndex) {
         this.deviceRepository = deviceRepository;
         this.userRepository = userRepository;
         this.messageProducer = messageProducer;
+        this.deviceOwnerIndex = deviceOwnerIndex;
     }
 
     @Transactional(readOnly = true)
@@ -45,13 +74,77 @@ public class DeviceService {
 
     @Transactional(readOnly = true)
     public List<DeviceDTO> getUnassignedDevices() {
-        List<Device> deviceList = deviceRepository.findAll();
+        List<Device> deviceList = deviceRepository.findByUserIsNull();
         return deviceList.stream()
-                .filter((device -> device.getUser() == null))
                 .map(DeviceBuilder::toDeviceDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public DevicePageDTO getDevicesPage(int page, int size) {
+        return toPage(deviceRepository.findAll(pageRequest(page, size)));
+    }
+
+    @Transactional(readOnly = true)
+    public DevicePageDTO getUnassignedDevicesPage(int page, int size) {
+        return toPage(deviceRepository.findByUserIsNull(pageRequest(page, size)));
+    }
+
+    /**
+     * One page of the admin device list, filtered and sorted in the database. The cursor is the nextCursor of the
+     * previous page, or null for the first one.
+     */
+    @Transactional(readOnly = true)
+    public DeviceSummaryPageDTO getDeviceSummaries(String name, String energyClass, UUID ownerId, String sort, String direction,
+                                                   String cursor, int size) {
+        DeviceSortField sortField;
+        Sort.Direction sortDirection;
+        try {
+            sortField = DeviceSortField.fromString(sort);
+            sortDirection = Sort.Direction.fromString(direction);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("sort " + sort + " " + direction);
+        }
+
+        String nameFilter = name != null ? name : "";
+        String energyClassFilter = energyClass != null ? energyClass : "";
+        String scope = cursorScope(sortField, sortDirection, nameFilter, energyClassFilter, String.valueOf(ownerId));
+        ScrollPosition position = cursor != null ? decodeCursor(cursor, sortField, scope) : ScrollPosition.keyset();
+        Sort order = Sort.by(sortDirection, sortField.getProperty()).and(Sort.by(sortDirection, "id"));
+        Limit limit = Limit.of(Math.clamp(size, 1, MAX_PAGE_SIZE));
+
+        Window<DeviceSummaryDTO> window = ownerId != null
+                ? deviceRepository.findByNameContainingIgnoreCaseAndEnergyClassContainingIgnoreCaseAndUserId(
+                        nameFilter, energyClassFilter, ownerId, position, order, limit)
+                : deviceRepository.findByNameContainingIgnoreCaseAndEnergyClassContainingIgnoreCase(
+                        nameFilter, energyClassFilter, position, order, limit);
+
+        String nextCursor = window.hasNext()
+                ? encodeCursor((KeysetScrollPosition) window.positionAt(window.size() - 1), sortField, scope)
+                : null;
+        return new DeviceSummaryPageDTO(window.getContent(), nextCursor);
+    }
+
+    /**
+     * One page of every device with its version, ordered by id, for consumers rebuilding their copy of the devices.
+     * The after id is the nextAfter of the previous page, or null for the first one.
+     */
+    @Transactional(readOnly = true)
+    public DeviceSnapshotPageDTO getDeviceSnapshot(UUID after, int size) {
+        Limit limit = Limit.of(Math.clamp(size, 1, MAX_PAGE_SIZE));
+        List<DeviceSnapshotDTO> items = after != null
+                ? deviceRepository.findByIdGreaterThanOrderById(after, limit)
+                : deviceRepository.findAllByOrderById(limit);
+
+        UUID nextAfter = items.size() == limit.max() ? items.getLast().getId() : null;
+        return new DeviceSnapshotPageDTO(items, nextAfter);
+    }
+
+    @Transactional(readOnly = true)
+    public DeviceCountsDTO getDeviceCounts() {
+        return new DeviceCountsDTO(deviceRepository.count(), deviceRepository.countByUserIsNull());
+    }
+
     @Transactional(readOnly = true)
     public DeviceDTO getDevice(UUID id) {
         Optional<Device> device = deviceRepository.findById(id);
@@ -67,13 +160,38 @@ public class DeviceService {
         Device device = DeviceBuilder.toEntity(deviceDTO);
         device = deviceRepository.save(device);
         LOGGER.debug("Device with id {} was inserted in db", device.getId());
+        deviceOwnerIndex.assign(device.getId(), null);
 
-        DeviceIdMessageType deviceMessage = new DeviceIdMessageType(OperationType.INSERT, device.getId(), device.getMaximumConsumptionValue());
-        messageProducer.sendToMonitoringQueue(deviceMessage);
+        DeviceIdMessageType deviceMessage = new DeviceIdMessageType(OperationType.INSERT, device.getId(), device.getMaximumConsumptionValue(), device.getVersion());
+        messageProducer.sendToMonitoringQueueAfterCommit(deviceMessage);
 
         return device.getId();
     }
 
+    /**
+     * Inserts all the devices in JDBC batches and publishes their INSERT events on one channel once the rows are
+     * committed, so a rolled back bulk never reaches Monitoring.
+     */
+    @Transactional
+    public List<UUID> insertAll(List<DeviceDTO> deviceDTOs) {
+        if (deviceDTOs.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("at most " + MAX_BULK_SIZE + " devices per request");
+        }
+
+        // Ids come from the client-side UUID generator, so Hibernate can group the inserts into batches.
+        List<Device> devices = deviceRepository.saveAll(deviceDTOs.stream().map(DeviceBuilder::toEntity).toList());
+        deviceRepository.flush();
+        LOGGER.info("{} devices were inserted in db", devices.size());
+
+        List<DeviceIdMessageType> messages = devices.stream()
+                .map(device -> new DeviceIdMessageType(OperationType.INSERT, device.getId(), device.getMaximumConsumptionValue(), device.getVersion()))
+                .toList();
+        messageProducer.sendAllToMonitoringQueueAfterCommit(messages);
+
+        devices.forEach(device -> deviceOwnerIndex.assign(device.getId(), null));
+        return devices.stream().map(Device::getId).toList();
+    }
+
     @Transactional
     public DeviceDTO update(UUID id, DeviceDTO deviceDTO) {
         Optional<Device> deviceOptional = deviceRepository.findById(id);
@@ -86,8 +204,13 @@ public class DeviceService {
         updated.setMaximumConsumptionValue(deviceDTO.getMaximumConsumptionValue());
         updated.setEnergyClass(deviceDTO.getEnergyClass());
         updated.setDescription(deviceDTO.getDescription());
-        updated = deviceRepository.save(updated);
+        // Flushed so that the event carries the incremented version
+        updated = deviceRepository.saveAndFlush(updated);
         LOGGER.debug("Device with id {} was updated in db", updated.getId());
+
+        DeviceIdMessageType deviceMessage = new DeviceIdMessageType(OperationType.UPDATE, updated.getId(), updated.getMaximumConsumptionValue(), updated.getVersion());
+        messageProducer.sendToMonitoringQueueAfterCommit(deviceMessage);
+
         return DeviceBuilder.toDeviceDTO(updated);
     }
 
@@ -107,9 +230,46 @@ public class DeviceService {
         }
 
         deviceRepository.deleteById(id);
+        deviceOwnerIndex.remove(id);
         LOGGER.info("Device with id {} was deleted from the database", id);
 
-        DeviceIdMessageType deviceMessage = new DeviceIdMessageType(OperationType.DELETE, id, null);
-        messageProducer.sendToMonitoringQueue(deviceMessage);
+        DeviceIdMessageType deviceMessage = new DeviceIdMessageType(OperationType.DELETE, id, null, device.get().getVersion());
+        messageProducer.sendToMonitoringQueueAfterCommit(deviceMessage);
+    }
+
+    // Sorted by id so that pages do not overlap or skip devices between requests.
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE), Sort.by("id"));
+    }
+
+    private DevicePageDTO toPage(Page<Device> devices) {
+        List<DeviceDTO> items = devices.stream()
+                .map(DeviceBuilder::toDeviceDTO)
+                .collect(Collectors.toList());
+        return new DevicePageDTO(items, devices.getNumber(), devices.getSize(), devices.getTotalElements());
+    }
+
+    // The cursor carries the sort and a hash of the filters, so a cursor taken under another sort, direction or
+    // filter is rejected instead of skipping rows.
+    private static String cursorScope(DeviceSortField sortField, Sort.Direction direction, String... filters) {
+        int filterHash = String.join("\n", filters).toLowerCase(Locale.ROOT).hashCode();
+        return sortField.name() + ":" + direction.name() + ":" + Integer.toHexString(filterHash);
+    }
+
+    private static String encodeCursor(KeysetScrollPosition position, DeviceSortField sortField, String scope) {
+        String cursor = scope + "\n" + position.getKeys().get("id") + "\n" + position.getKeys().get(sortField.getProperty());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeysetScrollPosition decodeCursor(String cursor, DeviceSortField sortField, String scope) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+            if (parts.length != 3 || !parts[0].equals(scope)) {
+                throw new BadRequestException("cursor " + cursor);
+            }
+            return ScrollPosition.forward(Map.of(sortField.getProperty(), parts[2], "id", UUID.fromString(parts[1])));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("cursor " + cursor);
+        }
     }
 }
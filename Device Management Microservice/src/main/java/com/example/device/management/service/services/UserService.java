@@ -2,10 +2,12 @@ package com.example.device.management.service.services;
 
 import com.example.device.management.service.dtos.DeviceDTO;
 import com.example.device.management.service.dtos.UserDTO;
+import com.example.device.management.service.dtos.UserDeviceAssociationDTO;
 import com.example.device.management.service.dtos.builders.DeviceBuilder;
 import com.example.device.management.service.dtos.builders.UserBuilder;
 import com.example.device.management.service.entities.Device;
 import com.example.device.management.service.entities.User;
+import com.example.device.management.service.handlers.exceptions.model.BadRequestException;
 import com.example.device.management.service.handlers.exceptions.model.ResourceNotFoundException;
 import com.example.device.management.service.messaging.DeviceAlertMessageType;
 import com.example.device.management.service.messaging.MessageProducer;
@@ -15,14 +17,17 @@ import com.example.device.management.service.repositories.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,12 +36,18 @@ public class UserService {
     private final UserRepository userRepository;
     private final DeviceRepository deviceRepository;
     private final MessageProducer messageProducer;
+    private final DeviceOwnerIndex deviceOwnerIndex;
+
+    @Value("${device.max-bulk-size}")
+    private int MAX_BULK_SIZE;
 
     @Autowired
-    public UserService(UserRepository userRepository, DeviceRepository deviceRepository, MessageProducer messageProducer) {
+    public UserService(UserRepository userRepository, DeviceRepository deviceRepository, MessageProducer messageProducer,
+                       DeviceOwnerIndex deviceOwnerIndex) {
         this.userRepository = userRepository;
         this.deviceRepository = deviceRepository;
         this.messageProducer = messageProducer;
+        this.deviceOwnerIndex = deviceOwnerIndex;
     }
 
     @Transactional(readOnly = true)
@@ -51,8 +62,10 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public List<DeviceDTO> getUserDevices(UUID id) {
-        User user = userRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException(User.class.getSimpleName() + " with id: " + id));
-        List<Device> devices = user.getDevices();
+        if (!userRepository.existsById(id)) {
+            throw new ResourceNotFoundException(User.class.getSimpleName() + " with id: " + id);
+        }
+        List<Device> devices = deviceRepository.findByUserId(id);
 
         if (devices.isEmpty()) {
             return Collections.emptyList();
@@ -87,9 +100,46 @@ public class UserService {
 
         device.get().setUser(user.get());
         deviceRepository.save(device.get());
+        deviceOwnerIndex.assign(deviceId, userId);
         LOGGER.info("Device with id {} was added to user with id {}", deviceId, userId);
     }
 
+    /**
+     * Assigns every device to its user with one query for the users, one for the devices and batched updates.
+     * Nothing is assigned if any user or device does not exist.
+     */
+    @Transactional
+    public void insertUserDevices(List<UserDeviceAssociationDTO> associations) {
+        if (associations.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("at most " + MAX_BULK_SIZE + " assignments per request");
+        }
+
+        Map<UUID, User> users = userRepository.findAllById(associations.stream().map(UserDeviceAssociationDTO::getUserId).toList())
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<UUID, Device> devices = deviceRepository.findAllById(associations.stream().map(UserDeviceAssociationDTO::getDeviceId).toList())
+                .stream()
+                .collect(Collectors.toMap(Device::getId, Function.identity()));
+
+        for (UserDeviceAssociationDTO association : associations) {
+            User user = users.get(association.getUserId());
+            if (user == null) {
+                LOGGER.error("User with id {} was not found in db", association.getUserId());
+                throw new ResourceNotFoundException(User.class.getSimpleName() + " with id: " + association.getUserId());
+            }
+            Device device = devices.get(association.getDeviceId());
+            if (device == null) {
+                LOGGER.error("Device with id {} was not found in db", association.getDeviceId());
+                throw new ResourceNotFoundException(Device.class.getSimpleName() + " with id: " + association.getDeviceId());
+            }
+            device.setUser(user);
+            deviceOwnerIndex.assign(device.getId(), user.getId());
+        }
+
+        deviceRepository.saveAll(devices.values());
+        LOGGER.info("{} devices were assigned to users", associations.size());
+    }
+
     @Transactional
     public void delete(UUID id) {
         Optional<User> user = userRepository.findById(id);
@@ -101,6 +151,7 @@ public class UserService {
         for (Device device : user.get().getDevices()) {
             device.setUser(null);
             deviceRepository.save(device);
+            deviceOwnerIndex.assign(device.getId(), null);
         }
 
         userRepository.deleteById(id);
@@ -123,6 +174,7 @@ public class UserService {
 
         device.get().setUser(null);
         deviceRepository.save(device.get());
+        deviceOwnerIndex.assign(deviceId, null);
 
         user.get().getDevices().remove(device.get());
         userRepository.save(user.get());
@@ -130,21 +182,14 @@ public class UserService {
     }
 
     public void notifyUser(UUID deviceId, Integer value, String timestamp) {
-        Optional<Device> device = deviceRepository.findById(deviceId);
-
-        if (device.isEmpty()) {
-            LOGGER.error("Device with id {} was not found in db", deviceId);
-            throw new ResourceNotFoundException(Device.class.getSimpleName() + " with id: " + deviceId);
-        }
-
-        User user = device.get().getUser();
+        Optional<UUID> userId = deviceOwnerIndex.getOwner(deviceId);
 
-        if (user == null) {
+        if (userId.isEmpty()) {
             return;
         }
 
-        UserNotificationMessageType message = new UserNotificationMessageType(user.getId(), deviceId, value, timestamp);
+        UserNotificationMessageType message = new UserNotificationMessageType(userId.get(), deviceId, value, timestamp);
         messageProducer.sendToUserNotificationQueue(message);
-        LOGGER.info("Sending message to user with id {}: {}", user.getId(), message);
+        LOGGER.info("Sending message to user with id {}: {}", userId.get(), message);
     }
 }
@@ -1,6 +1,16 @@
 package org.example.loadbalancingmicroservice.config;
 
+import org.example.loadbalancingmicroservice.services.IngestTopology;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -15,17 +25,23 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.queue.data.collection}")
     private String DATA_COLLECTION_QUEUE;
 
-    @Value("${rabbitmq.queue.monitoring.service.1}")
-    private String MONITORING_SERVICE_QUEUE_1;
+    @Value("${rabbitmq.exchange.registry}")
+    private String REGISTRY_EXCHANGE;
 
-    @Value("${rabbitmq.queue.monitoring.service.2}")
-    private String MONITORING_SERVICE_QUEUE_2;
+    @Value("${rabbitmq.exchange.sharded}")
+    private String SHARDED_EXCHANGE;
 
-    @Value("${rabbitmq.queue.monitoring.service.3}")
-    private String MONITORING_SERVICE_QUEUE_3;
+    @Value("${loadbalancing.topology}")
+    private String TOPOLOGY;
 
-    @Value("${rabbitmq.queue.monitoring.service.4}")
-    private String MONITORING_SERVICE_QUEUE_4;
+    @Value("${loadbalancing.forward.batch.size}")
+    private int FORWARD_BATCH_SIZE;
+
+    @Value("${loadbalancing.forward.batch.receive-timeout-ms}")
+    private long FORWARD_BATCH_RECEIVE_TIMEOUT_MS;
+
+    @Value("${loadbalancing.forward.prefetch}")
+    private int FORWARD_PREFETCH;
 
     @Bean
     public Queue dataCollectionQueue() {
@@ -33,23 +49,28 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public Queue monitoringServiceQueue1() {
-        return new Queue(MONITORING_SERVICE_QUEUE_1, true);
+    public FanoutExchange registryExchange() {
+        return new FanoutExchange(REGISTRY_EXCHANGE, true, false);
     }
 
+    // Every balancer instance gets its own auto-deleted queue, so each one sees all heartbeats.
     @Bean
-    public Queue monitoringServiceQueue2() {
-        return new Queue(MONITORING_SERVICE_QUEUE_2, true);
+    public Queue registryQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("internal.loadbalancer.registry."));
     }
 
     @Bean
-    public Queue monitoringServiceQueue3() {
-        return new Queue(MONITORING_SERVICE_QUEUE_3, true);
+    public Binding registryBinding() {
+        return BindingBuilder.bind(registryQueue()).to(registryExchange());
     }
 
+    // Needs the rabbitmq_consistent_hash_exchange plugin, so it is only declared when the sharded topology is used.
     @Bean
-    public Queue monitoringServiceQueue4() {
-        return new Queue(MONITORING_SERVICE_QUEUE_4, true);
+    public Declarables shardedExchange() {
+        if (IngestTopology.fromString(TOPOLOGY) != IngestTopology.SHARDED) {
+            return new Declarables();
+        }
+        return new Declarables(new CustomExchange(SHARDED_EXCHANGE, "x-consistent-hash", true, false));
     }
 
     @Bean
@@ -73,4 +94,17 @@ public class RabbitMQConfig {
         template.setMessageConverter(messageConverter());
         return template;
     }
-}
\ No newline at end of file
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory forwardListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(FORWARD_BATCH_SIZE);
+        factory.setReceiveTimeout(FORWARD_BATCH_RECEIVE_TIMEOUT_MS);
+        factory.setPrefetchCount(Math.max(FORWARD_PREFETCH, FORWARD_BATCH_SIZE));
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.loadbalancingmicroservice.messaging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Reads the deviceId straight out of a measurement's JSON bytes, without building a string or a JSON tree.
+ * Only a flat object with a quoted, canonical UUID value is understood; anything else yields null.
+ */
+public final class DeviceIdScanner {
+    private static final byte[] KEY = "\"deviceId\"".getBytes(StandardCharsets.US_ASCII);
+    private static final int UUID_LENGTH = 36;
+
+    private DeviceIdScanner() {
+    }
+
+    public static UUID scan(byte[] body) {
+        int index = indexOf(body, KEY);
+        if (index < 0) {
+            return null;
+        }
+
+        index = skipWhitespace(body, index + KEY.length);
+        if (index >= body.length || body[index] != ':') {
+            return null;
+        }
+        index = skipWhitespace(body, index + 1);
+        if (index >= body.length || body[index] != '"' || index + 1 + UUID_LENGTH >= body.length
+                || body[index + 1 + UUID_LENGTH] != '"') {
+            return null;
+        }
+        return parseUuid(body, index + 1);
+    }
+
+    private static UUID parseUuid(byte[] body, int start) {
+        long mostSignificant = 0;
+        long leastSignificant = 0;
+        int digits = 0;
+        for (int i = start; i < start + UUID_LENGTH; i++) {
+            int offset = i - start;
+            if (offset == 8 || offset == 13 || offset == 18 || offset == 23) {
+                if (body[i] != '-') {
+                    return null;
+                }
+                continue;
+            }
+
+            int value = Character.digit(body[i], 16);
+            if (value < 0) {
+                return null;
+            }
+            if (digits < 16) {
+                mostSignificant = (mostSignificant << 4) | value;
+            } else {
+                leastSignificant = (leastSignificant << 4) | value;
+            }
+            digits++;
+        }
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    private static int indexOf(byte[] body, byte[] key) {
+        outer:
+        for (int i = 0; i <= body.length - key.length; i++) {
+            for (int j = 0; j < key.length; j++) {
+                if (body[i + j] != key[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(byte[] body, int index) {
+        while (index < body.length && (body[index] == ' ' || body[index] == '\t' || body[index] == '\n' || body[index] == '\r')) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -1,21 +1,132 @@
 package org.example.loadbalancingmicroservice.messaging;
 
+import com.rabbitmq.client.Channel;
 import org.example.loadbalancingmicroservice.services.LoadBalancingService;
+import org.example.loadbalancingmicroservice.services.MonitoringQueueRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 public class MessageConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageConsumer.class);
+
     private final LoadBalancingService loadBalancingService;
+    private final MonitoringQueueRegistry queueRegistry;
+    private final TaskScheduler taskScheduler;
+
+    // Only touched by the single forwarding consumer thread
+    private int consecutiveFailures;
+    private Instant retryAt = Instant.MIN;
+    // Deliveries waiting for their scheduled nack, which a multiple ack must not cover
+    private final Set<Long> requeueing = ConcurrentHashMap.newKeySet();
+
+    @Value("${loadbalancing.forward.retry.initial-backoff-ms}")
+    private long INITIAL_BACKOFF_MS;
+
+    @Value("${loadbalancing.forward.retry.max-backoff-ms}")
+    private long MAX_BACKOFF_MS;
 
     @Autowired
-    public MessageConsumer(LoadBalancingService loadBalancingService) {
+    public MessageConsumer(LoadBalancingService loadBalancingService, MonitoringQueueRegistry queueRegistry,
+                           TaskScheduler taskScheduler) {
         this.loadBalancingService = loadBalancingService;
+        this.queueRegistry = queueRegistry;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Acks a message only once its forwarded copy was confirmed, so a failure redelivers it (at-least-once).
+     * The confirmed messages of a partly failed batch are acked and only the failed ones are requeued, after an
+     * exponential backoff. The listener thread does not wait for it: the nacks are scheduled, and batches delivered
+     * before the backoff ends are not forwarded but requeued with them, so a device's measurements keep their order.
+     * Held deliveries count against the prefetch, which stops the consumer when every batch keeps failing.
+     * Only consumes in the relay topology; in the sharded one the simulator publishes past the balancer.
+     */
+    @RabbitListener(queues = "${rabbitmq.queue.data.collection}", containerFactory = "forwardListenerContainerFactory",
+            autoStartup = "#{T(org.example.loadbalancingmicroservice.services.IngestTopology).fromString('${loadbalancing.topology}').name() == 'RELAY'}")
+    public void receiveMessages(List<Message> messages, Channel channel) throws IOException {
+        List<Long> deliveryTags = messages.stream().map(message -> message.getMessageProperties().getDeliveryTag()).toList();
+        if (Instant.now().isBefore(retryAt)) {
+            requeueLater(channel, new HashSet<>(deliveryTags));
+            return;
+        }
+
+        List<Message> failed;
+        try {
+            failed = loadBalancingService.forwardMessages(messages);
+        } catch (RuntimeException e) {
+            LOGGER.error("Forwarding {} measurements failed", messages.size(), e);
+            failed = messages;
+        }
+
+        if (failed.isEmpty()) {
+            consecutiveFailures = 0;
+            settle(channel, deliveryTags, Set.of());
+            return;
+        }
+
+        long backoffMs = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << Math.min(consecutiveFailures, 20));
+        consecutiveFailures++;
+        LOGGER.error("Requeueing {} of {} measurements in {} ms", failed.size(), messages.size(), backoffMs);
+
+        Set<Long> failedTags = new HashSet<>();
+        failed.forEach(message -> failedTags.add(message.getMessageProperties().getDeliveryTag()));
+        settle(channel, deliveryTags, failedTags);
+        retryAt = Instant.now().plusMillis(backoffMs);
+        requeueLater(channel, failedTags);
+    }
+
+    // Acks the confirmed prefix with one multiple ack unless a requeue is pending, the rest one by one.
+    private void settle(Channel channel, List<Long> deliveryTags, Set<Long> failedTags) throws IOException {
+        int firstFailed = 0;
+        while (firstFailed < deliveryTags.size() && !failedTags.contains(deliveryTags.get(firstFailed))) {
+            firstFailed++;
+        }
+        int acked = 0;
+        if (firstFailed > 0 && requeueing.isEmpty()) {
+            channel.basicAck(deliveryTags.get(firstFailed - 1), true);
+            acked = firstFailed;
+        }
+        for (long deliveryTag : deliveryTags.subList(acked, deliveryTags.size())) {
+            if (!failedTags.contains(deliveryTag)) {
+                channel.basicAck(deliveryTag, false);
+            }
+        }
+    }
+
+    private void requeueLater(Channel channel, Set<Long> deliveryTags) {
+        requeueing.addAll(deliveryTags);
+        taskScheduler.schedule(() -> requeue(channel, deliveryTags), retryAt);
+    }
+
+    private void requeue(Channel channel, Set<Long> deliveryTags) {
+        try {
+            for (long deliveryTag : deliveryTags.stream().sorted().toList()) {
+                channel.basicNack(deliveryTag, false, true);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The broker requeues everything unacked on a closed channel anyway.
+            LOGGER.warn("Could not requeue {} deliveries: {}", deliveryTags.size(), e.getMessage());
+        } finally {
+            requeueing.removeAll(deliveryTags);
+        }
     }
 
-    @RabbitListener(queues = "${rabbitmq.queue.data.collection}")
-    public void receiveMessage(MeasurementMessageType message) {
-        loadBalancingService.forwardMessage(message);
+    @RabbitListener(queues = "#{registryQueue.name}")
+    public void receiveHeartbeat(MonitoringHeartbeatMessageType message) {
+        queueRegistry.heartbeat(message);
     }
 }
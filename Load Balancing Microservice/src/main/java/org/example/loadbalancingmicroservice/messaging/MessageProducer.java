@@ -1,19 +1,50 @@
 package org.example.loadbalancingmicroservice.messaging;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class MessageProducer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageProducer.class);
+
     private final RabbitTemplate rabbitTemplate;
 
+    @Value("${loadbalancing.forward.confirm-timeout-ms}")
+    private long CONFIRM_TIMEOUT_MS;
+
     @Autowired
     public MessageProducer(RabbitTemplate rabbitTemplate) {
         this.rabbitTemplate = rabbitTemplate;
     }
 
-    public void sendMessage(String queueName, MeasurementMessageType message) {
-        rabbitTemplate.convertAndSend(queueName, message);
+    /**
+     * Publishes the batches one queue at a time on one dedicated channel and waits for the broker to confirm each.
+     * Returns the messages of every batch that was not confirmed, which is empty when all of them were.
+     */
+    public List<Message> sendMessagesConfirmed(Map<String, List<Message>> batches) {
+        return rabbitTemplate.invoke(operations -> {
+            List<Message> unconfirmed = new ArrayList<>();
+            batches.forEach((queueName, messages) -> {
+                try {
+                    messages.forEach(message -> operations.send(queueName, message));
+                    operations.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+                } catch (AmqpException e) {
+                    // A failed wait closes the channel, so the batches after it fail as well.
+                    LOGGER.warn("{} messages to {} were not confirmed: {}", messages.size(), queueName, e.getMessage());
+                    unconfirmed.addAll(messages);
+                }
+            });
+            return unconfirmed;
+        });
     }
 }
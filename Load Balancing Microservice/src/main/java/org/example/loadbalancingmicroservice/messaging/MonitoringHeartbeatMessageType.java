@@ -0,0 +1,60 @@
+package org.example.loadbalancingmicroservice.messaging;
+
+public class MonitoringHeartbeatMessageType {
+    private String replicaId;
+    private String queue;
+    private boolean leaving;
+    private double processingLatencyMs;
+
+    public MonitoringHeartbeatMessageType() {
+    }
+
+    public MonitoringHeartbeatMessageType(String replicaId, String queue, boolean leaving, double processingLatencyMs) {
+        this.replicaId = replicaId;
+        this.queue = queue;
+        this.leaving = leaving;
+        this.processingLatencyMs = processingLatencyMs;
+    }
+
+    public String getReplicaId() {
+        return replicaId;
+    }
+
+    public void setReplicaId(String replicaId) {
+        this.replicaId = replicaId;
+    }
+
+    public String getQueue() {
+        return queue;
+    }
+
+    public void setQueue(String queue) {
+        this.queue = queue;
+    }
+
+    public boolean isLeaving() {
+        return leaving;
+    }
+
+    public void setLeaving(boolean leaving) {
+        this.leaving = leaving;
+    }
+
+    public double getProcessingLatencyMs() {
+        return processingLatencyMs;
+    }
+
+    public void setProcessingLatencyMs(double processingLatencyMs) {
+        this.processingLatencyMs = processingLatencyMs;
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoringHeartbeatMessageType{" +
+                "replicaId='" + replicaId + '\'' +
+                ", queue='" + queue + '\'' +
+                ", leaving=" + leaving +
+                ", processingLatencyMs=" + processingLatencyMs +
+                '}';
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.loadbalancingmicroservice.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gives every device a home queue on a hash ring with virtual nodes, so one replica sees all of a device's
+ * measurements. With bounded loads, a queue whose load exceeds loadFactor times the average is skipped and the
+ * device spills to the next queue clockwise on the ring until the hot queue drains. The ring is rebuilt when
+ * replicas join or leave; only the devices of the changed queue move. A load factor of 0 turns the bounded loads
+ * off, so a device never leaves its home queue.
+ */
+@Service
+public class ConsistentHashRoutingStrategy implements RoutingStrategy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsistentHashRoutingStrategy.class);
+
+    private final QueueLoadMonitor queueLoadMonitor;
+    private final int virtualNodes;
+    private final double loadFactor;
+    private final AtomicReference<Ring> ring;
+
+    @Autowired
+    public ConsistentHashRoutingStrategy(
+            QueueLoadMonitor queueLoadMonitor,
+            MonitoringQueueRegistry queueRegistry,
+            @Value("${loadbalancing.routing.consistent-hash.virtual-nodes}") int virtualNodes,
+            @Value("${loadbalancing.routing.consistent-hash.load-factor}") double loadFactor) {
+        this.queueLoadMonitor = queueLoadMonitor;
+        this.virtualNodes = virtualNodes;
+        this.loadFactor = loadFactor;
+        this.ring = new AtomicReference<>(buildRing(queueRegistry.getQueues()));
+        queueRegistry.onChange(queues -> ring.set(buildRing(queues)));
+    }
+
+    @Override
+    public String name() {
+        return "consistent-hash";
+    }
+
+    @Override
+    public boolean needsDeviceId() {
+        return true;
+    }
+
+    // Spilling to the next queue splits a hot device across replicas.
+    @Override
+    public boolean keepsDeviceAffinity() {
+        return loadFactor <= 0;
+    }
+
+    @Override
+    public String route(UUID deviceId) {
+        Ring current = ring.get();
+        if (deviceId == null || current.hashes().length == 0) {
+            return queueLoadMonitor.getLeastLoadedQueue();
+        }
+
+        int position = ringPosition(current, hash(deviceId));
+        int home = current.owners()[position];
+        if (loadFactor <= 0) {
+            return current.queues().get(home);
+        }
+
+        QueueLoads loads = queueLoadMonitor.currentLoads();
+        // Queue indexes only line up when the load snapshot was taken for the same topology as the ring.
+        if (loads == null || !loads.queues().equals(current.queues())) {
+            return current.queues().get(home);
+        }
+
+        long total = 0;
+        for (int i = 0; i < current.queues().size(); i++) {
+            total += loads.load(i);
+        }
+        double capacity = Math.max(1, loadFactor * (total + 1) / current.queues().size());
+
+        for (int step = 0; step < current.owners().length; step++) {
+            int queue = current.owners()[(position + step) % current.owners().length];
+            if (loads.load(queue) < capacity) {
+                if (queue != home) {
+                    LOGGER.debug("Queue {} is over capacity, routing device {} to {}",
+                            current.queues().get(home), deviceId, current.queues().get(queue));
+                }
+                loads.recordSent(queue);
+                return current.queues().get(queue);
+            }
+        }
+
+        loads.recordSent(home);
+        return current.queues().get(home);
+    }
+
+    private Ring buildRing(List<String> queues) {
+        long[][] points = new long[queues.size() * virtualNodes][];
+        for (int queue = 0; queue < queues.size(); queue++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points[queue * virtualNodes + node] = new long[]{hash(queues.get(queue) + "#" + node), queue};
+            }
+        }
+        Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+
+        long[] hashes = new long[points.length];
+        int[] owners = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            hashes[i] = points[i][0];
+            owners[i] = (int) points[i][1];
+        }
+        return new Ring(queues, hashes, owners);
+    }
+
+    // First ring point at or after the hash, wrapping around to the start.
+    private static int ringPosition(Ring ring, long hash) {
+        int index = Arrays.binarySearch(ring.hashes(), hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index == ring.hashes().length ? 0 : index;
+    }
+
+    private static long hash(UUID deviceId) {
+        return mix(deviceId.getMostSignificantBits() ^ Long.rotateLeft(deviceId.getLeastSignificantBits(), 32));
+    }
+
+    // FNV-1a followed by a finalizer, so queue names differing in one character still land far apart.
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private record Ring(List<String> queues, long[] hashes, int[] owners) {
+    }
+}
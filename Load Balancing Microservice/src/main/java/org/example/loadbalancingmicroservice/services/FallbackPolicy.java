@@ -0,0 +1,15 @@
+package org.example.loadbalancingmicroservice.services;
+
+/**
+ * What routing does when the queue depth snapshot is missing or older than the allowed staleness.
+ */
+public enum FallbackPolicy {
+    // Keep using the last snapshot, however old it is
+    LAST_KNOWN,
+    // Spread messages evenly over the queues
+    ROUND_ROBIN;
+
+    public static FallbackPolicy fromString(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
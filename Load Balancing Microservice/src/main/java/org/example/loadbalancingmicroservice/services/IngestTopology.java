@@ -0,0 +1,15 @@
+package org.example.loadbalancingmicroservice.services;
+
+/**
+ * How measurements get from the simulator to the monitoring replicas.
+ */
+public enum IngestTopology {
+    // The balancer consumes the data collection queue and forwards every message to a monitoring queue
+    RELAY,
+    // The simulator publishes to a consistent-hash exchange bound to the monitoring queues, the balancer only keeps the bindings
+    SHARDED;
+
+    public static IngestTopology fromString(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
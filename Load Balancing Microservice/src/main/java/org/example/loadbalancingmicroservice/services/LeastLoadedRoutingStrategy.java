@@ -0,0 +1,36 @@
+package org.example.loadbalancingmicroservice.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+public class LeastLoadedRoutingStrategy implements RoutingStrategy {
+    private final QueueLoadMonitor queueLoadMonitor;
+
+    @Autowired
+    public LeastLoadedRoutingStrategy(QueueLoadMonitor queueLoadMonitor) {
+        this.queueLoadMonitor = queueLoadMonitor;
+    }
+
+    @Override
+    public String name() {
+        return "least-loaded";
+    }
+
+    @Override
+    public boolean needsDeviceId() {
+        return false;
+    }
+
+    @Override
+    public boolean keepsDeviceAffinity() {
+        return false;
+    }
+
+    @Override
+    public String route(UUID deviceId) {
+        return queueLoadMonitor.getLeastLoadedQueue();
+    }
+}
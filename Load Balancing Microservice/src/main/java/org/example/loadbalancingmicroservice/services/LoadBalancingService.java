@@ -1,29 +1,57 @@
 package org.example.loadbalancingmicroservice.services;
 
-import org.example.loadbalancingmicroservice.messaging.MeasurementMessageType;
+import org.example.loadbalancingmicroservice.messaging.DeviceIdScanner;
 import org.example.loadbalancingmicroservice.messaging.MessageProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 @Service
 public class LoadBalancingService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LoadBalancingService.class);
 
     private final MessageProducer messageProducer;
-    private final QueueLoadMonitor queueLoadMonitor;
+    private final RoutingStrategy routingStrategy;
 
     @Autowired
-    public LoadBalancingService(MessageProducer messageProducer, QueueLoadMonitor queueLoadMonitor) {
+    public LoadBalancingService(MessageProducer messageProducer, List<RoutingStrategy> routingStrategies,
+                                @Value("${loadbalancing.routing.strategy}") String routingStrategy,
+                                @Value("${loadbalancing.routing.require-device-affinity}") boolean requireDeviceAffinity) {
         this.messageProducer = messageProducer;
-        this.queueLoadMonitor = queueLoadMonitor;
+        this.routingStrategy = routingStrategies.stream()
+                .filter(strategy -> strategy.name().equals(routingStrategy))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown routing strategy: " + routingStrategy));
+        // Monitoring's alert and anomaly state is per replica, a strategy that splits devices makes it fire on noise.
+        if (requireDeviceAffinity && !this.routingStrategy.keepsDeviceAffinity()) {
+            throw new IllegalArgumentException("Routing strategy " + routingStrategy + " does not keep a device on one replica; " +
+                    "use consistent-hash with a load factor of 0, or set loadbalancing.routing.require-device-affinity=false");
+        }
+        LOGGER.info("Routing measurements with the {} strategy", this.routingStrategy.name());
     }
 
-    public void forwardMessage(MeasurementMessageType message) {
-        String targetQueue = queueLoadMonitor.getLeastLoadedQueue();
-        LOGGER.info("Routing device {} to {}", message.getDeviceId(), targetQueue);
-        messageProducer.sendMessage(targetQueue, message);
+    /**
+     * Forwards the message bodies and properties untouched; a body is only scanned when the strategy routes by device.
+     * Returns the messages the broker did not confirm, empty once every forwarded message was confirmed.
+     */
+    public List<Message> forwardMessages(List<Message> messages) {
+        Map<String, List<Message>> batches = new LinkedHashMap<>();
+        for (Message message : messages) {
+            UUID deviceId = routingStrategy.needsDeviceId() ? DeviceIdScanner.scan(message.getBody()) : null;
+            String targetQueue = routingStrategy.route(deviceId);
+            LOGGER.debug("Routing device {} to {}", deviceId, targetQueue);
+            batches.computeIfAbsent(targetQueue, queue -> new ArrayList<>()).add(message);
+        }
+        return messageProducer.sendMessagesConfirmed(batches);
     }
 }
@@ -0,0 +1,102 @@
+package org.example.loadbalancingmicroservice.services;
+
+import org.example.loadbalancingmicroservice.messaging.MonitoringHeartbeatMessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * The monitoring queues that currently have a live replica, learned from the heartbeats every replica
+ * publishes on the registry exchange. Until the first heartbeat arrives the configured bootstrap queues are used.
+ * The topology is an immutable sorted list, replaced as a whole whenever a queue joins or expires.
+ */
+@Service
+public class MonitoringQueueRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonitoringQueueRegistry.class);
+
+    private final List<String> bootstrapQueues;
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private final Map<String, ReplicaMetrics> metrics = new ConcurrentHashMap<>();
+    private final AtomicReference<List<String>> queues;
+    private final List<Consumer<List<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Value("${loadbalancing.registry.expiry-ms}")
+    private long EXPIRY_MS;
+
+    @Autowired
+    public MonitoringQueueRegistry(@Value("${rabbitmq.queue.monitoring.bootstrap}") String bootstrapQueues) {
+        this.bootstrapQueues = Arrays.stream(bootstrapQueues.split(","))
+                .map(String::trim)
+                .filter(queue -> !queue.isEmpty())
+                .sorted()
+                .toList();
+        this.queues = new AtomicReference<>(this.bootstrapQueues);
+    }
+
+    public List<String> getQueues() {
+        return queues.get();
+    }
+
+    /**
+     * The processing latency the queue's replica reported last, or null if it has not reported any.
+     */
+    public ReplicaMetrics getMetrics(String queue) {
+        return metrics.get(queue);
+    }
+
+    public void onChange(Consumer<List<String>> listener) {
+        listeners.add(listener);
+    }
+
+    public void heartbeat(MonitoringHeartbeatMessageType heartbeat) {
+        if (heartbeat.getQueue() == null || heartbeat.getQueue().isBlank()) {
+            return;
+        }
+
+        if (heartbeat.isLeaving()) {
+            lastSeen.remove(heartbeat.getQueue());
+            metrics.remove(heartbeat.getQueue());
+            LOGGER.info("Replica {} left, queue {} removed", heartbeat.getReplicaId(), heartbeat.getQueue());
+        } else {
+            metrics.put(heartbeat.getQueue(), new ReplicaMetrics(heartbeat.getProcessingLatencyMs()));
+            if (lastSeen.put(heartbeat.getQueue(), System.currentTimeMillis()) == null) {
+                LOGGER.info("Replica {} joined with queue {}", heartbeat.getReplicaId(), heartbeat.getQueue());
+            }
+            LOGGER.debug("Replica {} processes a measurement in {} ms", heartbeat.getReplicaId(), heartbeat.getProcessingLatencyMs());
+        }
+        publish();
+    }
+
+    @Scheduled(fixedDelayString = "${loadbalancing.registry.expiry-check-interval-ms}")
+    public void expire() {
+        long oldest = System.currentTimeMillis() - EXPIRY_MS;
+        if (lastSeen.entrySet().removeIf(entry -> entry.getValue() < oldest)) {
+            metrics.keySet().retainAll(lastSeen.keySet());
+            publish();
+        }
+    }
+
+    private synchronized void publish() {
+        List<String> live = lastSeen.keySet().stream().sorted().toList();
+        List<String> next = live.isEmpty() ? bootstrapQueues : live;
+        if (next.equals(queues.get())) {
+            return;
+        }
+
+        queues.set(next);
+        LOGGER.info("Routing over {} monitoring queues: {}", next.size(), next);
+        listeners.forEach(listener -> listener.accept(next));
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.loadbalancingmicroservice.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples two random queues and picks the one with less outstanding work, where the work of a queue is its depth
+ * plus what was sent to it since the last sample, times the processing latency its replica reports. That latency
+ * is measured before the replica buffers measurements for a flush, so it tracks how busy the replica is rather
+ * than the flush interval. A replica with a slow database therefore gets a smaller share
+ * before its backlog builds up, and comparing only two queues keeps every replica from herding onto the one
+ * that looked best in the last sample.
+ */
+@Service
+public class PowerOfTwoChoicesRoutingStrategy implements RoutingStrategy {
+    private final QueueLoadMonitor queueLoadMonitor;
+    private final MonitoringQueueRegistry queueRegistry;
+
+    @Autowired
+    public PowerOfTwoChoicesRoutingStrategy(QueueLoadMonitor queueLoadMonitor, MonitoringQueueRegistry queueRegistry) {
+        this.queueLoadMonitor = queueLoadMonitor;
+        this.queueRegistry = queueRegistry;
+    }
+
+    @Override
+    public String name() {
+        return "power-of-two";
+    }
+
+    @Override
+    public boolean needsDeviceId() {
+        return false;
+    }
+
+    @Override
+    public boolean keepsDeviceAffinity() {
+        return false;
+    }
+
+    @Override
+    public String route(UUID deviceId) {
+        QueueLoads loads = queueLoadMonitor.currentLoads();
+        if (loads == null || loads.queues().size() < 2) {
+            return queueLoadMonitor.getLeastLoadedQueue();
+        }
+
+        int size = loads.queues().size();
+        double[] latencies = latencies(loads);
+        int first = ThreadLocalRandom.current().nextInt(size);
+        int second = ThreadLocalRandom.current().nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        int chosen = work(loads, latencies, first) <= work(loads, latencies, second) ? first : second;
+        loads.recordSent(chosen);
+        return loads.queues().get(chosen);
+    }
+
+    private double work(QueueLoads loads, double[] latencies, int queue) {
+        return (loads.load(queue) + 1) * latencies[queue];
+    }
+
+    // Replicas that processed nothing lately are assumed to be as fast as the average of the others.
+    private double[] latencies(QueueLoads loads) {
+        double[] latencies = new double[loads.queues().size()];
+        double sum = 0;
+        int known = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            ReplicaMetrics metrics = queueRegistry.getMetrics(loads.queues().get(i));
+            if (metrics != null && metrics.processingLatencyMs() > 0) {
+                latencies[i] = metrics.processingLatencyMs();
+                sum += latencies[i];
+                known++;
+            }
+        }
+
+        double fallback = known > 0 ? sum / known : 1;
+        for (int i = 0; i < latencies.length; i++) {
+            if (latencies[i] == 0) {
+                latencies[i] = fallback;
+            }
+        }
+        return latencies;
+    }
+}
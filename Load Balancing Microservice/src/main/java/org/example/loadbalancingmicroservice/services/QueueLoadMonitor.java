@@ -5,57 +5,107 @@ import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Samples the depth of the monitoring queues on a schedule and routes from the cached snapshot, so forwarding a
+ * message costs no broker round-trip. Messages sent since the last sample are added to the sampled depth, which
+ * keeps a burst from piling onto the queue that happened to be shortest at sampling time.
+ */
 @Service
 public class QueueLoadMonitor {
 
     private static final Logger logger = LoggerFactory.getLogger(QueueLoadMonitor.class);
 
     private final RabbitAdmin rabbitAdmin;
-    private final String[] queues;
+    private final MonitoringQueueRegistry queueRegistry;
+    private final FallbackPolicy fallbackPolicy;
+
+    private final AtomicReference<QueueLoads> snapshot = new AtomicReference<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    @Value("${loadbalancing.queue-load.max-staleness-ms}")
+    private long MAX_STALENESS_MS;
 
     @Autowired
     public QueueLoadMonitor(
             RabbitAdmin rabbitAdmin,
-            @Value("${rabbitmq.queue.monitoring.service.1}") String queue1,
-            @Value("${rabbitmq.queue.monitoring.service.2}") String queue2,
-            @Value("${rabbitmq.queue.monitoring.service.3}") String queue3,
-            @Value("${rabbitmq.queue.monitoring.service.4}") String queue4) {
+            MonitoringQueueRegistry queueRegistry,
+            @Value("${loadbalancing.queue-load.fallback}") String fallbackPolicy) {
         this.rabbitAdmin = rabbitAdmin;
-        this.queues = new String[]{queue1, queue2, queue3, queue4};
+        this.queueRegistry = queueRegistry;
+        this.fallbackPolicy = FallbackPolicy.fromString(fallbackPolicy);
+        queueRegistry.onChange(queues -> sample());
     }
 
     public long getQueueMessageCount(String queueName) {
-        try {
-            Properties props = rabbitAdmin.getQueueProperties(queueName);
-            if (props != null) {
-                Object count = props.get("QUEUE_MESSAGE_COUNT");
-                return Long.parseLong(count.toString());
+        Properties props = rabbitAdmin.getQueueProperties(queueName);
+        if (props == null) {
+            throw new IllegalStateException("Queue " + queueName + " does not exist");
+        }
+        Object count = props.get(RabbitAdmin.QUEUE_MESSAGE_COUNT);
+        return Long.parseLong(count.toString());
+    }
+
+    @Scheduled(fixedDelayString = "${loadbalancing.queue-load.sample-interval-ms}")
+    public void sample() {
+        List<String> queues = queueRegistry.getQueues();
+        long[] depths = new long[queues.size()];
+        for (int i = 0; i < queues.size(); i++) {
+            try {
+                depths[i] = getQueueMessageCount(queues.get(i));
+            } catch (Exception e) {
+                // A partial sample would look like an empty queue, so the previous snapshot is kept and ages instead.
+                logger.warn("Error getting queue count for {}: {}", queues.get(i), e.getMessage());
+                return;
             }
-        } catch (Exception e) {
-            logger.error("Error getting queue count for {}: {}", queueName, e.getMessage());
         }
-        return 0L;
+
+        snapshot.set(new QueueLoads(queues, depths, new AtomicLongArray(queues.size()), System.currentTimeMillis()));
+        logger.debug("Sampled queue depths {}", depths);
     }
 
-    public String getLeastLoadedQueue() {
-        String leastLoadedQueue = queues[0];
-        long minLoad = Long.MAX_VALUE;
+    /**
+     * Loads of the current topology, or null when there is no usable snapshot of it and routing should fall back.
+     */
+    public QueueLoads currentLoads() {
+        QueueLoads current = snapshot.get();
+        if (current == null || !current.queues().equals(queueRegistry.getQueues())) {
+            return null;
+        }
+        boolean stale = System.currentTimeMillis() - current.sampledAtMillis() > MAX_STALENESS_MS;
+        if (stale && fallbackPolicy == FallbackPolicy.ROUND_ROBIN) {
+            return null;
+        }
+        return current;
+    }
 
-        for (String queue : queues) {
-            long load = getQueueMessageCount(queue);
-            logger.debug("Queue {} has {} messages", queue, load);
+    public String getLeastLoadedQueue() {
+        QueueLoads loads = currentLoads();
+        if (loads == null) {
+            List<String> queues = queueRegistry.getQueues();
+            if (queues.isEmpty()) {
+                throw new IllegalStateException("No monitoring queue is registered");
+            }
+            return queues.get(Math.floorMod(roundRobin.getAndIncrement(), queues.size()));
+        }
 
-            if (load < minLoad) {
-                minLoad = load;
-                leastLoadedQueue = queue;
+        int leastLoaded = 0;
+        for (int i = 1; i < loads.queues().size(); i++) {
+            if (loads.load(i) < loads.load(leastLoaded)) {
+                leastLoaded = i;
             }
         }
 
-        logger.info("Selected queue: {} (load: {})", leastLoadedQueue, minLoad);
-        return leastLoadedQueue;
+        loads.recordSent(leastLoaded);
+        logger.debug("Selected queue: {} (load: {})", loads.queues().get(leastLoaded), loads.load(leastLoaded));
+        return loads.queues().get(leastLoaded);
     }
 }
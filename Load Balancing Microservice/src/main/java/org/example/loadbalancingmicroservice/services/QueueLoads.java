@@ -0,0 +1,18 @@
+package org.example.loadbalancingmicroservice.services;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Queue depths sampled at one point in time for one topology, plus what was sent to each queue since.
+ */
+public record QueueLoads(List<String> queues, long[] depths, AtomicLongArray sent, long sampledAtMillis) {
+
+    public long load(int queue) {
+        return depths[queue] + sent.get(queue);
+    }
+
+    public void recordSent(int queue) {
+        sent.incrementAndGet(queue);
+    }
+}
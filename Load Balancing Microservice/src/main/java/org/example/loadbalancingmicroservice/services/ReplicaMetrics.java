@@ -0,0 +1,10 @@
+package org.example.loadbalancingmicroservice.services;
+
+/**
+ * What a monitoring replica reported in its last heartbeat.
+ *
+ * @param processingLatencyMs mean time from delivery until the replica processed a measurement, before any
+ *                            write-behind buffering, 0 when it processed nothing
+ */
+public record ReplicaMetrics(double processingLatencyMs) {
+}
@@ -0,0 +1,29 @@
+package org.example.loadbalancingmicroservice.services;
+
+import java.util.UUID;
+
+/**
+ * Picks the monitoring queue a measurement is forwarded to.
+ */
+public interface RoutingStrategy {
+    /**
+     * Name used to select the strategy with loadbalancing.routing.strategy.
+     */
+    String name();
+
+    /**
+     * Whether route needs the device id. When it does not, the forwarder never looks inside the message body.
+     */
+    boolean needsDeviceId();
+
+    /**
+     * Whether every measurement of a device goes to the same queue while the set of queues does not change.
+     * Monitoring keeps alert and anomaly state per replica and relies on it.
+     */
+    boolean keepsDeviceAffinity();
+
+    /**
+     * @param deviceId the measurement's device, or null if it is not needed or could not be read
+     */
+    String route(UUID deviceId);
+}
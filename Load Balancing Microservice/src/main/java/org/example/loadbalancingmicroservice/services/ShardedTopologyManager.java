@@ -0,0 +1,82 @@
+package org.example.loadbalancingmicroservice.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In the sharded topology, keeps the consistent-hash exchange bound to exactly the monitoring queues that have a
+ * live replica. The broker then spreads devices over those queues itself and no message passes through this service.
+ */
+@Service
+public class ShardedTopologyManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedTopologyManager.class);
+
+    // For x-consistent-hash the binding key is the queue's weight on the hash ring.
+    private static final String BINDING_WEIGHT = "1";
+
+    private final RabbitAdmin rabbitAdmin;
+    private final MonitoringQueueRegistry queueRegistry;
+    private final boolean sharded;
+    private final String shardedExchange;
+    private final Set<String> boundQueues = new HashSet<>();
+
+    @Autowired
+    public ShardedTopologyManager(
+            RabbitAdmin rabbitAdmin,
+            MonitoringQueueRegistry queueRegistry,
+            @Value("${loadbalancing.topology}") String topology,
+            @Value("${rabbitmq.exchange.sharded}") String shardedExchange) {
+        this.rabbitAdmin = rabbitAdmin;
+        this.queueRegistry = queueRegistry;
+        this.sharded = IngestTopology.fromString(topology) == IngestTopology.SHARDED;
+        this.shardedExchange = shardedExchange;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!sharded) {
+            return;
+        }
+        LOGGER.info("Sharded topology, the monitoring queues are bound to {}", shardedExchange);
+        queueRegistry.onChange(this::bind);
+        bind(queueRegistry.getQueues());
+    }
+
+    private synchronized void bind(List<String> queues) {
+        for (String queue : queues) {
+            if (!boundQueues.contains(queue) && apply(queue, true)) {
+                boundQueues.add(queue);
+            }
+        }
+        boundQueues.removeIf(queue -> !queues.contains(queue) && apply(queue, false));
+    }
+
+    private boolean apply(String queue, boolean bind) {
+        Binding binding = new Binding(queue, Binding.DestinationType.QUEUE, shardedExchange, BINDING_WEIGHT, null);
+        try {
+            if (bind) {
+                rabbitAdmin.declareBinding(binding);
+            } else {
+                rabbitAdmin.removeBinding(binding);
+            }
+            LOGGER.info("{} {} {}", bind ? "Bound" : "Unbound", queue, shardedExchange);
+            return true;
+        } catch (RuntimeException e) {
+            // Retried on the next topology change
+            LOGGER.warn("Could not {} {}: {}", bind ? "bind" : "unbind", queue, e.getMessage());
+            return false;
+        }
+    }
+}
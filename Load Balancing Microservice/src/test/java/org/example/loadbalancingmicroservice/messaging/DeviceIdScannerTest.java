@@ -0,0 +1,49 @@
+package org.example.loadbalancingmicroservice.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DeviceIdScannerTest {
+    private static final UUID DEVICE_ID = UUID.fromString("3f2b8c1e-9a4d-4e7b-8c21-5d6f7a8b9c0d");
+
+    @Test
+    void readsTheDeviceId() {
+        assertEquals(DEVICE_ID, scan("{\"timestamp\":\"2025-01-01T10:00\",\"deviceId\":\"" + DEVICE_ID + "\",\"value\":12}"));
+    }
+
+    @Test
+    void allowsWhitespaceAndUpperCaseHex() {
+        assertEquals(DEVICE_ID, scan("{ \"deviceId\" :\n\t\"" + DEVICE_ID.toString().toUpperCase() + "\" }"));
+    }
+
+    @Test
+    void returnsNullForAMissingKey() {
+        assertNull(scan("{\"id\":\"" + DEVICE_ID + "\"}"));
+        assertNull(scan(""));
+    }
+
+    @Test
+    void returnsNullForMalformedValues() {
+        assertNull(scan("{\"deviceId\":null}"));
+        assertNull(scan("{\"deviceId\":\"not-a-uuid\"}"));
+        assertNull(scan("{\"deviceId\":\"3f2b8c1e-9a4d-4e7b-8c21-5d6f7a8b9c0z\"}"));
+        assertNull(scan("{\"deviceId\":\"3f2b8c1e09a4d-4e7b-8c21-5d6f7a8b9c0d\"}"));
+        assertNull(scan("{\"deviceId\" \"" + DEVICE_ID + "\"}"));
+    }
+
+    @Test
+    void returnsNullForATruncatedBody() {
+        assertNull(scan("{\"deviceId\":\"" + DEVICE_ID));
+        assertNull(scan("{\"deviceId\":\"" + DEVICE_ID.toString().substring(0, 20)));
+        assertNull(scan("{\"deviceId\":"));
+    }
+
+    private static UUID scan(String body) {
+        return DeviceIdScanner.scan(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
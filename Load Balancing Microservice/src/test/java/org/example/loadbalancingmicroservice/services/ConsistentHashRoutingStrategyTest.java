@@ -0,0 +1,116 @@
+package org.example.loadbalancingmicroservice.services;
+
+import org.example.loadbalancingmicroservice.messaging.MonitoringHeartbeatMessageType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConsistentHashRoutingStrategyTest {
+    private static final List<String> QUEUES = List.of("monitoring.a", "monitoring.b", "monitoring.c");
+    private static final int DEVICES = 3_000;
+
+    private final QueueLoadMonitor queueLoadMonitor = mock(QueueLoadMonitor.class);
+    private final MonitoringQueueRegistry queueRegistry = new MonitoringQueueRegistry(String.join(",", QUEUES));
+    private final List<UUID> devices = devices();
+
+    @Test
+    void keepsEveryDeviceOnItsHomeQueue() {
+        ConsistentHashRoutingStrategy strategy = strategy(0);
+        ConsistentHashRoutingStrategy other = strategy(0);
+
+        for (UUID deviceId : devices) {
+            String queue = strategy.route(deviceId);
+            assertEquals(queue, strategy.route(deviceId));
+            assertEquals(queue, other.route(deviceId));
+        }
+        assertTrue(strategy.keepsDeviceAffinity());
+    }
+
+    @Test
+    void spreadsDevicesOverTheQueues() {
+        ConsistentHashRoutingStrategy strategy = strategy(0);
+
+        Map<String, Integer> counts = new HashMap<>();
+        devices.forEach(deviceId -> counts.merge(strategy.route(deviceId), 1, Integer::sum));
+
+        assertEquals(QUEUES.size(), counts.size());
+        int average = DEVICES / QUEUES.size();
+        counts.values().forEach(count -> assertTrue(count > average / 2 && count < average * 2, counts.toString()));
+    }
+
+    @Test
+    void movesOnlyDevicesToAJoiningQueue() {
+        QUEUES.forEach(this::join);
+        ConsistentHashRoutingStrategy strategy = strategy(0);
+        Map<UUID, String> before = routes(strategy);
+
+        join("monitoring.d");
+        Map<UUID, String> after = routes(strategy);
+
+        int moved = 0;
+        for (UUID deviceId : devices) {
+            if (!before.get(deviceId).equals(after.get(deviceId))) {
+                assertEquals("monitoring.d", after.get(deviceId));
+                moved++;
+            }
+        }
+        assertTrue(moved > 0);
+    }
+
+    @Test
+    void spillsPastAnOverloadedHomeQueue() {
+        UUID deviceId = devices.getFirst();
+        String home = strategy(0).route(deviceId);
+        long[] depths = new long[QUEUES.size()];
+        depths[QUEUES.indexOf(home)] = 10_000;
+        when(queueLoadMonitor.currentLoads())
+                .thenReturn(new QueueLoads(QUEUES, depths, new AtomicLongArray(QUEUES.size()), System.currentTimeMillis()));
+
+        ConsistentHashRoutingStrategy bounded = strategy(1.25);
+
+        assertNotEquals(home, bounded.route(deviceId));
+        assertFalse(bounded.keepsDeviceAffinity());
+    }
+
+    @Test
+    void routesUnknownDevicesToTheLeastLoadedQueue() {
+        when(queueLoadMonitor.getLeastLoadedQueue()).thenReturn("monitoring.b");
+
+        assertEquals("monitoring.b", strategy(0).route(null));
+    }
+
+    private ConsistentHashRoutingStrategy strategy(double loadFactor) {
+        return new ConsistentHashRoutingStrategy(queueLoadMonitor, queueRegistry, 160, loadFactor);
+    }
+
+    private void join(String queue) {
+        queueRegistry.heartbeat(new MonitoringHeartbeatMessageType("replica-" + queue, queue, false, 0));
+    }
+
+    private Map<UUID, String> routes(ConsistentHashRoutingStrategy strategy) {
+        Map<UUID, String> routes = new HashMap<>();
+        devices.forEach(deviceId -> routes.put(deviceId, strategy.route(deviceId)));
+        return routes;
+    }
+
+    private static List<UUID> devices() {
+        List<UUID> devices = new ArrayList<>(DEVICES);
+        for (int i = 0; i < DEVICES; i++) {
+            devices.add(UUID.nameUUIDFromBytes(("device-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        return devices;
+    }
+}
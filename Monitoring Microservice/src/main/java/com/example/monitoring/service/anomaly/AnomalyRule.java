@@ -0,0 +1,23 @@
+package com.example.monitoring.service.anomaly;
+
+/**
+ * A streaming rule over one device's measurements. Each device owns a fixed slice of a double[] that is only
+ * touched by the device's ingest lane, so a rule keeps all its state in that slice and never allocates.
+ * A zeroed slice is the state of a device that has not been seen yet.
+ */
+public interface AnomalyRule {
+    String name();
+
+    /**
+     * Number of doubles of state the rule needs per device.
+     */
+    int stateSize();
+
+    /**
+     * Judges the value against the state and then folds it into the state.
+     *
+     * @param hourOfDay hour of the measurement, or -1 if unknown
+     * @return true if the value is anomalous
+     */
+    boolean evaluate(double[] state, int offset, double value, int hourOfDay);
+}
@@ -0,0 +1,47 @@
+package com.example.monitoring.service.anomaly;
+
+/**
+ * Flags values further than threshold standard deviations from an exponentially weighted mean.
+ * State: count, mean, variance.
+ */
+public class EwmaDeviationRule implements AnomalyRule {
+    private final double alpha;
+    private final double threshold;
+    private final int warmup;
+
+    public EwmaDeviationRule(double alpha, double threshold, int warmup) {
+        this.alpha = alpha;
+        this.threshold = threshold;
+        this.warmup = warmup;
+    }
+
+    @Override
+    public String name() {
+        return "ewma";
+    }
+
+    @Override
+    public int stateSize() {
+        return 3;
+    }
+
+    @Override
+    public boolean evaluate(double[] state, int offset, double value, int hourOfDay) {
+        double count = state[offset];
+        double mean = state[offset + 1];
+        double variance = state[offset + 2];
+
+        boolean anomalous = count >= warmup && Math.abs(value - mean) > threshold * Math.sqrt(variance);
+
+        if (count == 0) {
+            state[offset + 1] = value;
+        } else {
+            double difference = value - mean;
+            double increment = alpha * difference;
+            state[offset + 1] = mean + increment;
+            state[offset + 2] = (1 - alpha) * (variance + difference * increment);
+        }
+        state[offset] = count + 1;
+        return anomalous;
+    }
+}
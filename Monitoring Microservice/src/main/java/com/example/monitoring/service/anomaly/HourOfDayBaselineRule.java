@@ -0,0 +1,47 @@
+package com.example.monitoring.service.anomaly;
+
+/**
+ * Flags values above factor times the device's usual value for the same hour of the day.
+ * State: an exponentially weighted mean per hour followed by a sample count per hour.
+ */
+public class HourOfDayBaselineRule implements AnomalyRule {
+    private static final int HOURS = 24;
+
+    private final double alpha;
+    private final double factor;
+    private final int warmup;
+
+    public HourOfDayBaselineRule(double alpha, double factor, int warmup) {
+        this.alpha = alpha;
+        this.factor = factor;
+        this.warmup = warmup;
+    }
+
+    @Override
+    public String name() {
+        return "hour-of-day";
+    }
+
+    @Override
+    public int stateSize() {
+        return 2 * HOURS;
+    }
+
+    @Override
+    public boolean evaluate(double[] state, int offset, double value, int hourOfDay) {
+        if (hourOfDay < 0 || hourOfDay >= HOURS) {
+            return false;
+        }
+
+        int meanIndex = offset + hourOfDay;
+        int countIndex = offset + HOURS + hourOfDay;
+        double mean = state[meanIndex];
+        double count = state[countIndex];
+
+        boolean anomalous = count >= warmup && mean > 0 && value > mean * factor;
+
+        state[meanIndex] = count == 0 ? value : mean + alpha * (value - mean);
+        state[countIndex] = count + 1;
+        return anomalous;
+    }
+}
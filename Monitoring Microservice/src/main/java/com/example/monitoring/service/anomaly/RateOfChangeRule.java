@@ -0,0 +1,31 @@
+package com.example.monitoring.service.anomaly;
+
+/**
+ * Flags values that differ from the device's previous value by more than maxDelta.
+ * State: seen flag, previous value.
+ */
+public class RateOfChangeRule implements AnomalyRule {
+    private final double maxDelta;
+
+    public RateOfChangeRule(double maxDelta) {
+        this.maxDelta = maxDelta;
+    }
+
+    @Override
+    public String name() {
+        return "rate-of-change";
+    }
+
+    @Override
+    public int stateSize() {
+        return 2;
+    }
+
+    @Override
+    public boolean evaluate(double[] state, int offset, double value, int hourOfDay) {
+        boolean anomalous = state[offset] != 0 && Math.abs(value - state[offset + 1]) > maxDelta;
+        state[offset] = 1;
+        state[offset + 1] = value;
+        return anomalous;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.monitoring.service.anomaly;
+
+/**
+ * Flags values whose z-score against the last window values exceeds the threshold.
+ * State: count, next ring index, sum, sum of squares, then the ring of window values.
+ */
+public class RollingZScoreRule implements AnomalyRule {
+    private static final int HEADER = 4;
+
+    private final int window;
+    private final double threshold;
+
+    public RollingZScoreRule(int window, double threshold) {
+        this.window = window;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public String name() {
+        return "zscore";
+    }
+
+    @Override
+    public int stateSize() {
+        return HEADER + window;
+    }
+
+    @Override
+    public boolean evaluate(double[] state, int offset, double value, int hourOfDay) {
+        double count = state[offset];
+        int next = (int) state[offset + 1];
+        double sum = state[offset + 2];
+        double sumOfSquares = state[offset + 3];
+
+        boolean anomalous = false;
+        if (count >= window) {
+            double mean = sum / window;
+            double deviation = Math.sqrt(Math.max(sumOfSquares / window - mean * mean, 0));
+            anomalous = deviation > 0 && Math.abs(value - mean) / deviation > threshold;
+
+            double evicted = state[offset + HEADER + next];
+            sum -= evicted;
+            sumOfSquares -= evicted * evicted;
+        }
+
+        state[offset + HEADER + next] = value;
+        state[offset] = Math.min(count + 1, window);
+        state[offset + 1] = (next + 1) % window;
+        state[offset + 2] = sum + value;
+        state[offset + 3] = sumOfSquares + value * value;
+        return anomalous;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.monitoring.service.common;
+
+public enum ConsumptionPeriod {
+    DAY,
+    WEEK,
+    MONTH,
+    YEAR;
+
+    public static ConsumptionPeriod fromString(String value) {
+        return valueOf(value.toUpperCase());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.monitoring.service.config;
+
+import com.example.monitoring.service.anomaly.AnomalyRule;
+import com.example.monitoring.service.anomaly.EwmaDeviationRule;
+import com.example.monitoring.service.anomaly.HourOfDayBaselineRule;
+import com.example.monitoring.service.anomaly.RateOfChangeRule;
+import com.example.monitoring.service.anomaly.RollingZScoreRule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class AnomalyConfig {
+
+    @Value("${monitoring.anomaly.rules}")
+    private List<String> RULES;
+
+    @Value("${monitoring.anomaly.ewma.alpha}")
+    private double EWMA_ALPHA;
+
+    @Value("${monitoring.anomaly.ewma.threshold}")
+    private double EWMA_THRESHOLD;
+
+    @Value("${monitoring.anomaly.zscore.window}")
+    private int ZSCORE_WINDOW;
+
+    @Value("${monitoring.anomaly.zscore.threshold}")
+    private double ZSCORE_THRESHOLD;
+
+    @Value("${monitoring.anomaly.rate-of-change.max-delta}")
+    private double RATE_OF_CHANGE_MAX_DELTA;
+
+    @Value("${monitoring.anomaly.hour-of-day.alpha}")
+    private double HOUR_OF_DAY_ALPHA;
+
+    @Value("${monitoring.anomaly.hour-of-day.factor}")
+    private double HOUR_OF_DAY_FACTOR;
+
+    @Value("${monitoring.anomaly.warmup}")
+    private int WARMUP;
+
+    @Bean
+    public List<AnomalyRule> anomalyRules() {
+        List<AnomalyRule> rules = new ArrayList<>();
+        for (String rule : RULES) {
+            switch (rule.trim()) {
+                case "" -> {
+                }
+                case "ewma" -> rules.add(new EwmaDeviationRule(EWMA_ALPHA, EWMA_THRESHOLD, WARMUP));
+                case "zscore" -> rules.add(new RollingZScoreRule(ZSCORE_WINDOW, ZSCORE_THRESHOLD));
+                case "rate-of-change" -> rules.add(new RateOfChangeRule(RATE_OF_CHANGE_MAX_DELTA));
+                case "hour-of-day" -> rules.add(new HourOfDayBaselineRule(HOUR_OF_DAY_ALPHA, HOUR_OF_DAY_FACTOR, WARMUP));
+                default -> throw new IllegalArgumentException("Unknown anomaly rule: " + rule);
+            }
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.monitoring.service.config;
+
+import com.example.monitoring.service.services.DeviceDataPartitionManager;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Turns device_data into a table range-partitioned by month with primary key (device_id, bucket_start), and
+ * creates the daily and monthly rollup tables next to it.
+ * Hibernate's ddl-auto cannot create partitioned tables, so DeviceDataSchemaFilterProvider keeps it away from
+ * device_data. A plain table left by an older version (including the layout with a UUID id and date/time
+ * columns) is renamed, copied into the partitioned table and dropped. Runs after Hibernate has updated the
+ * schema and before the listeners start; replicas serialize on an advisory lock.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class DeviceDataSchema {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceDataSchema.class);
+
+    private static final String CREATE_PARTITIONED_TABLE = """
+            CREATE TABLE device_data (
+                device_id uuid NOT NULL,
+                bucket_start timestamp(6) NOT NULL,
+                value integer NOT NULL,
+                CONSTRAINT pk_device_data PRIMARY KEY (device_id, bucket_start),
+                CONSTRAINT fk_device_data_device FOREIGN KEY (device_id) REFERENCES devices (id) ON DELETE CASCADE
+            ) PARTITION BY RANGE (bucket_start)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DeviceDataPartitionManager partitionManager;
+
+    public DeviceDataSchema(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            DeviceDataPartitionManager partitionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.partitionManager = partitionManager;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            partitionManager.lockSchema();
+            ensurePartitionedTable();
+            ensureRollupTable("device_data_daily", "day", "date_trunc('day', bucket_start)");
+            ensureRollupTable("device_data_monthly", "month", "date_trunc('month', bucket_start)");
+            ensureAnomalyForeignKey();
+        });
+
+        partitionManager.loadExisting();
+        partitionManager.maintain();
+    }
+
+    private void ensurePartitionedTable() {
+        List<String> kind = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('device_data')", String.class);
+        if (!kind.isEmpty() && "p".equals(kind.getFirst())) {
+            return;
+        }
+
+        boolean hasLegacyTable = !kind.isEmpty();
+        if (hasLegacyTable) {
+            jdbcTemplate.execute("ALTER TABLE device_data RENAME TO device_data_legacy");
+        }
+        jdbcTemplate.execute(CREATE_PARTITIONED_TABLE);
+        LOGGER.info("Created partitioned device_data table");
+
+        if (hasLegacyTable) {
+            copyLegacyRows();
+            jdbcTemplate.execute("DROP TABLE device_data_legacy");
+        }
+    }
+
+    /**
+     * Rollups are kept up to date by every hourly upsert; a newly created one is backfilled from the hourly rows once.
+     */
+    private void ensureRollupTable(String table, String periodColumn, String periodExpression) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE TABLE " + table + " (" +
+                "device_id uuid NOT NULL, " +
+                periodColumn + " date NOT NULL, " +
+                "value bigint NOT NULL, " +
+                "CONSTRAINT pk_" + table + " PRIMARY KEY (device_id, " + periodColumn + "), " +
+                "CONSTRAINT fk_" + table + "_device FOREIGN KEY (device_id) REFERENCES devices (id) ON DELETE CASCADE)");
+
+        int backfilled = jdbcTemplate.update("INSERT INTO " + table + " (device_id, " + periodColumn + ", value) " +
+                "SELECT device_id, " + periodExpression + "::date, sum(value) FROM device_data GROUP BY 1, 2");
+        LOGGER.info("Created {} and backfilled {} rows", table, backfilled);
+    }
+
+    // Hibernate creates device_anomalies without the cascade, so flagged measurements would outlive their device.
+    private void ensureAnomalyForeignKey() {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_device_anomalies_device')", Boolean.class);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+
+        int orphans = jdbcTemplate.update("DELETE FROM device_anomalies WHERE device_id NOT IN (SELECT id FROM devices)");
+        jdbcTemplate.execute("ALTER TABLE device_anomalies ADD CONSTRAINT fk_device_anomalies_device " +
+                "FOREIGN KEY (device_id) REFERENCES devices (id) ON DELETE CASCADE");
+        LOGGER.info("Added cascading foreign key to device_anomalies, removed {} orphaned rows", orphans);
+    }
+
+    private void copyLegacyRows() {
+        // Rows written before the partitioned layout have separate date and time columns.
+        Integer dateColumns = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = 'device_data_legacy' AND column_name = 'date'
+                """, Integer.class);
+        String bucketStart = dateColumns != null && dateColumns > 0 ? "l.date + l.time" : "l.bucket_start";
+
+        List<Timestamp> months = jdbcTemplate.queryForList(
+                "SELECT DISTINCT date_trunc('month', " + bucketStart + ") FROM device_data_legacy l WHERE " + bucketStart + " IS NOT NULL",
+                Timestamp.class);
+        months.forEach(month -> partitionManager.createPartition(YearMonth.from(month.toLocalDateTime())));
+
+        int copied = jdbcTemplate.update(
+                "INSERT INTO device_data (device_id, bucket_start, value) " +
+                "SELECT l.device_id, " + bucketStart + ", sum(l.value) FROM device_data_legacy l " +
+                "WHERE l.device_id IN (SELECT id FROM devices) AND " + bucketStart + " IS NOT NULL " +
+                "GROUP BY l.device_id, " + bucketStart);
+        LOGGER.info("Copied {} hourly rows into the partitioned device_data table", copied);
+    }
+}
@@ -1,6 +1,15 @@
 package com.example.monitoring.service.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
@@ -8,6 +17,7 @@ import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 @Configuration
 public class RabbitMQConfig {
@@ -21,6 +31,30 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.queue.alert}")
     private String ALERT_QUEUE;
 
+    @Value("${rabbitmq.exchange.registry}")
+    private String REGISTRY_EXCHANGE;
+
+    @Value("${rabbitmq.exchange.device-events}")
+    private String DEVICE_EVENTS_EXCHANGE;
+
+    @Value("${rabbitmq.exchange.sharded}")
+    private String SHARDED_EXCHANGE;
+
+    @Value("${monitoring.ingest.topology}")
+    private String INGEST_TOPOLOGY;
+
+    @Value("${monitoring.ingest.batch.size}")
+    private int INGEST_BATCH_SIZE;
+
+    @Value("${monitoring.ingest.batch.receive-timeout-ms}")
+    private long INGEST_BATCH_RECEIVE_TIMEOUT_MS;
+
+    @Value("${monitoring.ingest.prefetch}")
+    private int INGEST_PREFETCH;
+
+    @Value("${monitoring.ingest.virtual-threads}")
+    private boolean INGEST_VIRTUAL_THREADS;
+
     @Bean
     public Queue monitoringQueue() {
         return new Queue(MONITORING_QUEUE, true);
@@ -36,6 +70,41 @@ public class RabbitMQConfig {
         return new Queue(ALERT_QUEUE, true);
     }
 
+    @Bean
+    public FanoutExchange registryExchange() {
+        return new FanoutExchange(REGISTRY_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public FanoutExchange deviceEventsExchange() {
+        return new FanoutExchange(DEVICE_EVENTS_EXCHANGE, true, false);
+    }
+
+    // Device events are applied to the database by whichever replica takes them from the monitoring queue, which then
+    // republishes them here. Every replica gets its own auto-deleted queue, so all of their caches see every event.
+    @Bean
+    public Queue deviceEventsQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("internal.monitoring.device-events."));
+    }
+
+    @Bean
+    public Binding deviceEventsBinding() {
+        return BindingBuilder.bind(deviceEventsQueue()).to(deviceEventsExchange());
+    }
+
+    // In the sharded topology the data collection queue takes its share of devices straight from the broker.
+    // The load balancer unbinds it when this replica stops sending heartbeats and binds it again when they resume.
+    @Bean
+    public Declarables shardedIngestBinding() {
+        if (!"sharded".equalsIgnoreCase(INGEST_TOPOLOGY.trim())) {
+            return new Declarables();
+        }
+        return new Declarables(
+                new CustomExchange(SHARDED_EXCHANGE, "x-consistent-hash", true, false),
+                new Binding(DATA_COLLECTION_QUEUE, Binding.DestinationType.QUEUE, SHARDED_EXCHANGE, "1", null)
+        );
+    }
+
     @Bean
     @SuppressWarnings("removal")
     public Jackson2JsonMessageConverter messageConverter() {
@@ -54,4 +123,25 @@ public class RabbitMQConfig {
         template.setMessageConverter(messageConverter());
         return template;
     }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(INGEST_BATCH_SIZE);
+        factory.setReceiveTimeout(INGEST_BATCH_RECEIVE_TIMEOUT_MS);
+        factory.setPrefetchCount(Math.max(INGEST_PREFETCH, INGEST_BATCH_SIZE));
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        // One consumer keeps the delivery order; it only hands batches to the ingest lanes, which do the work.
+        factory.setConcurrentConsumers(1);
+        if (INGEST_VIRTUAL_THREADS) {
+            SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("ingest-consumer-");
+            taskExecutor.setVirtualThreads(true);
+            factory.setTaskExecutor(taskExecutor);
+        }
+        return factory;
+    }
 }
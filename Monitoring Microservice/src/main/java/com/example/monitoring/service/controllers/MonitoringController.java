@@ -1,11 +1,22 @@
 package com.example.monitoring.service.controllers;
 
+import com.example.monitoring.service.common.ConsumptionPeriod;
 import com.example.monitoring.service.common.UserRole;
 import com.example.monitoring.service.common.security.RequireRole;
+import com.example.monitoring.service.dtos.AnomalyStatsDTO;
+import com.example.monitoring.service.dtos.ConsumptionPointDTO;
+import com.example.monitoring.service.dtos.DeviceAnomalyDTO;
+import com.example.monitoring.service.dtos.DeviceCacheStatsDTO;
 import com.example.monitoring.service.dtos.DeviceDataDTO;
+import com.example.monitoring.service.dtos.DeviceDataPageDTO;
 import com.example.monitoring.service.dtos.HourlyConsumptionDTO;
+import com.example.monitoring.service.dtos.IngestStatsDTO;
+import com.example.monitoring.service.services.AnomalyEngine;
+import com.example.monitoring.service.services.ConsumptionService;
+import com.example.monitoring.service.services.DeviceCache;
 import com.example.monitoring.service.services.DeviceDataService;
 import com.example.monitoring.service.services.DeviceService;
+import com.example.monitoring.service.services.IngestThrottle;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,10 +25,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,11 +49,21 @@ import java.util.UUID;
 public class MonitoringController {
     private final DeviceService deviceService;
     private final DeviceDataService deviceDataService;
+    private final DeviceCache deviceCache;
+    private final IngestThrottle ingestThrottle;
+    private final ConsumptionService consumptionService;
+    private final AnomalyEngine anomalyEngine;
 
     @Autowired
-    public MonitoringController(DeviceService deviceService, DeviceDataService deviceDataService) {
+    public MonitoringController(DeviceService deviceService, DeviceDataService deviceDataService, DeviceCache deviceCache,
+                                IngestThrottle ingestThrottle, ConsumptionService consumptionService,
+                                AnomalyEngine anomalyEngine) {
         this.deviceService = deviceService;
         this.deviceDataService = deviceDataService;
+        this.deviceCache = deviceCache;
+        this.ingestThrottle = ingestThrottle;
+        this.consumptionService = consumptionService;
+        this.anomalyEngine = anomalyEngine;
     }
 
     @GetMapping("/user/device-data/{id}")
@@ -74,6 +106,92 @@ public class MonitoringController {
         }
     }
 
+    @GetMapping("/user/device-data/{id}/page")
+    @RequireRole({UserRole.USER, UserRole.ADMIN})
+    @Operation(summary = "Get one page of device data in a time range - Requires JWT (User or Admin)",
+               security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "200", description = "Device data page retrieved successfully")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - User or Admin access required")
+    @ApiResponse(responseCode = "404", description = "Device not found")
+    public ResponseEntity<DeviceDataPageDTO> getDeviceDataPage(
+            @Parameter(description = "Device ID (UUID format)", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Inclusive start (YYYY-MM-DDTHH:MM), or nextFrom of the previous page")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end (YYYY-MM-DDTHH:MM)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(defaultValue = "168") int size) {
+        try {
+            DeviceDataPageDTO page = deviceDataService.findPageByDevice(id, from, to, size);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/user/anomalies/{id}")
+    @RequireRole({UserRole.USER, UserRole.ADMIN})
+    @Operation(summary = "Get the most recent anomalies flagged for a device - Requires JWT (User or Admin)",
+               security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "200", description = "Anomalies retrieved successfully")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - User or Admin access required")
+    public ResponseEntity<List<DeviceAnomalyDTO>> getDeviceAnomalies(
+            @Parameter(description = "Device ID (UUID format)", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Number of anomalies, newest first, capped by the server")
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(anomalyEngine.findRecent(id, limit));
+    }
+
+    @GetMapping(value = "/user/device-data/{id}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @RequireRole({UserRole.USER, UserRole.ADMIN})
+    @Operation(summary = "Stream device data in a time range as a JSON array - Requires JWT (User or Admin)",
+               security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "200", description = "Device data streamed successfully")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - User or Admin access required")
+    @ApiResponse(responseCode = "404", description = "Device not found")
+    public ResponseEntity<StreamingResponseBody> streamDeviceData(
+            @Parameter(description = "Device ID (UUID format)", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Inclusive start (YYYY-MM-DDTHH:MM)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end (YYYY-MM-DDTHH:MM)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            deviceDataService.assertDeviceExists(id);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write('[');
+            boolean[] first = {true};
+            try {
+                deviceDataService.streamByDevice(id, from, to, deviceData -> {
+                    try {
+                        if (!first[0]) {
+                            writer.write(',');
+                        }
+                        first[0] = false;
+                        writeDeviceData(writer, deviceData);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.write(']');
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @PostMapping("/user/hourly-consumption/{date}")
     @RequireRole({UserRole.USER, UserRole.ADMIN})
     @Operation(summary = "Get hourly consumption for devices - Requires JWT (User or Admin)",
@@ -99,4 +217,82 @@ public class MonitoringController {
             return ResponseEntity.status(500).build();
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/user/consumption/{period}/{date}")
+    @RequireRole({UserRole.USER, UserRole.ADMIN})
+    @Operation(summary = "Get the consumption curve of a day, week, month or year for devices - Requires JWT (User or Admin)",
+               security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "200", description = "Consumption curve retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Unknown period")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - User or Admin access required")
+    @ApiResponse(responseCode = "500", description = "Internal server error")
+    public ResponseEntity<List<ConsumptionPointDTO>> getUserConsumption(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "List of device IDs",
+                required = true,
+                content = @Content(schema = @Schema(implementation = List.class))
+            )
+            @RequestBody List<UUID> deviceIds,
+            @Parameter(description = "Period (day, week, month or year)", required = true)
+            @PathVariable String period,
+            @Parameter(description = "Any date inside the period (YYYY-MM-DD)", required = true)
+            @PathVariable LocalDate date) {
+        ConsumptionPeriod consumptionPeriod;
+        try {
+            consumptionPeriod = ConsumptionPeriod.fromString(period);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(consumptionService.getConsumption(deviceIds, consumptionPeriod, date));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    @GetMapping("/admin/device-cache/stats")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "Get device cache statistics - Requires JWT (Admin)",
+               security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "200", description = "Device cache statistics retrieved successfully")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    public ResponseEntity<DeviceCacheStatsDTO> getDeviceCacheStats() {
+        return ResponseEntity.ok(deviceCache.getStats());
+    }
+
+    @GetMapping("/admin/ingest/stats")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "Get ingest rate and throttling statistics - Requires JWT (Admin)",
+               security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "200", description = "Ingest statistics retrieved successfully")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    public ResponseEntity<IngestStatsDTO> getIngestStats() {
+        return ResponseEntity.ok(ingestThrottle.getStats());
+    }
+
+    @GetMapping("/admin/anomaly/stats")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "Get anomaly rule statistics - Requires JWT (Admin)",
+               security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(responseCode = "200", description = "Anomaly statistics retrieved successfully")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    public ResponseEntity<AnomalyStatsDTO> getAnomalyStats() {
+        return ResponseEntity.ok(anomalyEngine.getStats());
+    }
+
+    // Same shape Jackson produces for DeviceDataDTO, written by hand so rows never pile up in a response buffer.
+    private static void writeDeviceData(Writer writer, DeviceDataDTO deviceData) throws IOException {
+        writer.write("{\"date\":\"");
+        writer.write(deviceData.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+        writer.write("\",\"time\":\"");
+        writer.write(deviceData.getTime().format(DateTimeFormatter.ISO_LOCAL_TIME));
+        writer.write("\",\"value\":");
+        writer.write(String.valueOf(deviceData.getValue()));
+        writer.write('}');
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.monitoring.service.dtos;
+
+import java.util.Map;
+
+public class AnomalyStatsDTO {
+    private Map<String, Long> anomaliesByRule;
+    private long evaluatedMeasurements;
+    private double averageNanosPerMeasurement;
+    private long unsavedAnomalies;
+
+    public AnomalyStatsDTO() {
+    }
+
+    public AnomalyStatsDTO(Map<String, Long> anomaliesByRule, long evaluatedMeasurements, double averageNanosPerMeasurement,
+                           long unsavedAnomalies) {
+        this.anomaliesByRule = anomaliesByRule;
+        this.evaluatedMeasurements = evaluatedMeasurements;
+        this.averageNanosPerMeasurement = averageNanosPerMeasurement;
+        this.unsavedAnomalies = unsavedAnomalies;
+    }
+
+    public Map<String, Long> getAnomaliesByRule() {
+        return anomaliesByRule;
+    }
+
+    public void setAnomaliesByRule(Map<String, Long> anomaliesByRule) {
+        this.anomaliesByRule = anomaliesByRule;
+    }
+
+    public long getEvaluatedMeasurements() {
+        return evaluatedMeasurements;
+    }
+
+    public void setEvaluatedMeasurements(long evaluatedMeasurements) {
+        this.evaluatedMeasurements = evaluatedMeasurements;
+    }
+
+    public double getAverageNanosPerMeasurement() {
+        return averageNanosPerMeasurement;
+    }
+
+    public void setAverageNanosPerMeasurement(double averageNanosPerMeasurement) {
+        this.averageNanosPerMeasurement = averageNanosPerMeasurement;
+    }
+
+    public long getUnsavedAnomalies() {
+        return unsavedAnomalies;
+    }
+
+    public void setUnsavedAnomalies(long unsavedAnomalies) {
+        this.unsavedAnomalies = unsavedAnomalies;
+    }
+
+    @Override
+    public String toString() {
+        return "AnomalyStatsDTO{" +
+                "anomaliesByRule=" + anomaliesByRule +
+                ", evaluatedMeasurements=" + evaluatedMeasurements +
+                ", averageNanosPerMeasurement=" + averageNanosPerMeasurement +
+                ", unsavedAnomalies=" + unsavedAnomalies +
+                '}';
+    }
+}
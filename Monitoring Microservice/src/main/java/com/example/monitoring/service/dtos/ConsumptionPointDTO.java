@@ -0,0 +1,40 @@
+package com.example.monitoring.service.dtos;
+
+import java.time.LocalDateTime;
+
+public class ConsumptionPointDTO {
+    private LocalDateTime start;
+    private Long value;
+
+    public ConsumptionPointDTO() {
+    }
+
+    public ConsumptionPointDTO(LocalDateTime start, Long value) {
+        this.start = start;
+        this.value = value;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public Long getValue() {
+        return value;
+    }
+
+    public void setValue(Long value) {
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsumptionPointDTO{" +
+                "start=" + start +
+                ", value=" + value +
+                '}';
+    }
+}
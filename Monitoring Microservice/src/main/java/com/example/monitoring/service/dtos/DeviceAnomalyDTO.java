@@ -1,20 +1,24 @@
-package org.example.loadbalancingmicroservice.messaging;
+package com.example.monitoring.service.dtos;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-public class MeasurementMessageType {
+public class DeviceAnomalyDTO {
     private UUID deviceId;
-    private String timestamp;
+    private String rule;
     private Integer value;
+    private String timestamp;
+    private LocalDateTime detectedAt;
 
-    public MeasurementMessageType() {
+    public DeviceAnomalyDTO() {
     }
 
-    public MeasurementMessageType(UUID deviceId, String timestamp, Integer value) {
+    public DeviceAnomalyDTO(UUID deviceId, String rule, Integer value, String timestamp, LocalDateTime detectedAt) {
         this.deviceId = deviceId;
-        this.timestamp = timestamp;
+        this.rule = rule;
         this.value = value;
+        this.timestamp = timestamp;
+        this.detectedAt = detectedAt;
     }
 
     public UUID getDeviceId() {
@@ -25,12 +29,12 @@ public class MeasurementMessageType {
         this.deviceId = deviceId;
     }
 
-    public String getTimestamp() {
-        return timestamp;
+    public String getRule() {
+        return rule;
     }
 
-    public void setTimestamp(String timestamp) {
-        this.timestamp = timestamp;
+    public void setRule(String rule) {
+        this.rule = rule;
     }
 
     public Integer getValue() {
@@ -41,12 +45,30 @@ public class MeasurementMessageType {
         this.value = value;
     }
 
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+
+    public void setDetectedAt(LocalDateTime detectedAt) {
+        this.detectedAt = detectedAt;
+    }
+
     @Override
     public String toString() {
-        return "MeasurementMessage{" +
-                "deviceId='" + deviceId + '\'' +
-                ", timestamp='" + timestamp + '\'' +
+        return "DeviceAnomalyDTO{" +
+                "deviceId=" + deviceId +
+                ", rule='" + rule + '\'' +
                 ", value=" + value +
+                ", timestamp='" + timestamp + '\'' +
+                ", detectedAt=" + detectedAt +
                 '}';
     }
 }
@@ -3,10 +3,8 @@ package com.example.monitoring.service.dtos;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Objects;
-import java.util.UUID;
 
 public class DeviceDataDTO {
-    private UUID id;
     private LocalDate date;
     private LocalTime time;
     private Integer value;
@@ -14,21 +12,12 @@ public class DeviceDataDTO {
     public DeviceDataDTO() {
     }
 
-    public DeviceDataDTO(UUID id, LocalDate date, LocalTime time, Integer value) {
-        this.id = id;
+    public DeviceDataDTO(LocalDate date, LocalTime time, Integer value) {
         this.date = date;
         this.time = time;
         this.value = value;
     }
 
-    public UUID getId() {
-        return id;
-    }
-
-    public void setId(UUID id) {
-        this.id = id;
-    }
-
     public LocalDate getDate() {
         return date;
     }
@@ -60,7 +49,6 @@ public class DeviceDataDTO {
 
         DeviceDataDTO that = (DeviceDataDTO) o;
 
-        if (id != null ? !id.equals(that.id) : that.id != null) return false;
         if (date != null ? !date.equals(that.date) : that.date != null) return false;
         if (time != null ? !time.equals(that.time) : that.time != null) return false;
         return value != null ? value.equals(that.value) : that.value == null;
@@ -68,14 +56,13 @@ public class DeviceDataDTO {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, date, time, value);
+        return Objects.hash(date, time, value);
     }
 
     @Override
     public String toString() {
         return "DeviceDataDTO{" +
-                "id=" + id +
-                ", date='" + date + '\'' +
+                "date='" + date + '\'' +
                 ", time='" + time + '\'' +
                 ", value=" + value +
                 '}';
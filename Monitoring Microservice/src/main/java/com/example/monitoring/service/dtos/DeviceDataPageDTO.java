@@ -0,0 +1,42 @@
+package com.example.monitoring.service.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class DeviceDataPageDTO {
+    private List<DeviceDataDTO> items;
+    // Pass as "from" to get the next page, null on the last page
+    private LocalDateTime nextFrom;
+
+    public DeviceDataPageDTO() {
+    }
+
+    public DeviceDataPageDTO(List<DeviceDataDTO> items, LocalDateTime nextFrom) {
+        this.items = items;
+        this.nextFrom = nextFrom;
+    }
+
+    public List<DeviceDataDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<DeviceDataDTO> items) {
+        this.items = items;
+    }
+
+    public LocalDateTime getNextFrom() {
+        return nextFrom;
+    }
+
+    public void setNextFrom(LocalDateTime nextFrom) {
+        this.nextFrom = nextFrom;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceDataPageDTO{" +
+                "items=" + items +
+                ", nextFrom=" + nextFrom +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.monitoring.service.dtos;
+
+import java.util.UUID;
+
+/**
+ * A device as listed by the Device Management snapshot endpoint.
+ */
+public class DeviceSnapshotDTO {
+    private UUID id;
+    private Integer maximumConsumptionValue;
+    private long version;
+
+    public DeviceSnapshotDTO() {}
+
+    public DeviceSnapshotDTO(UUID id, Integer maximumConsumptionValue, long version) {
+        this.id = id;
+        this.maximumConsumptionValue = maximumConsumptionValue;
+        this.version = version;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Integer getMaximumConsumptionValue() {
+        return maximumConsumptionValue;
+    }
+
+    public void setMaximumConsumptionValue(Integer maximumConsumptionValue) {
+        this.maximumConsumptionValue = maximumConsumptionValue;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceSnapshotDTO{" +
+                "id=" + id +
+                ", maximumConsumptionValue=" + maximumConsumptionValue +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.monitoring.service.dtos;
+
+import java.util.List;
+import java.util.UUID;
+
+public class DeviceSnapshotPageDTO {
+    private List<DeviceSnapshotDTO> items;
+    // Id to continue after, null on the last page
+    private UUID nextAfter;
+
+    public DeviceSnapshotPageDTO() {}
+
+    public List<DeviceSnapshotDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<DeviceSnapshotDTO> items) {
+        this.items = items;
+    }
+
+    public UUID getNextAfter() {
+        return nextAfter;
+    }
+
+    public void setNextAfter(UUID nextAfter) {
+        this.nextAfter = nextAfter;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceSnapshotPageDTO{" +
+                "items=" + items +
+                ", nextAfter=" + nextAfter +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.monitoring.service.dtos;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+public record HourlyBucket(UUID deviceId, LocalDateTime start) {
+
+    public static HourlyBucket of(UUID deviceId, LocalDateTime timestamp) {
+        return new HourlyBucket(deviceId, timestamp.truncatedTo(ChronoUnit.HOURS));
+    }
+}
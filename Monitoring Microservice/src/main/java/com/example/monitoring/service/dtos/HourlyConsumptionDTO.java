@@ -9,12 +9,12 @@ public class HourlyConsumptionDTO {
     private LocalTime time;
 
     @NotNull( message = "The value cannot be null" )
-    private Integer value;
+    private Long value;
 
     public HourlyConsumptionDTO() {
     }
 
-    public HourlyConsumptionDTO(LocalTime time, Integer value) {
+    public HourlyConsumptionDTO(LocalTime time, Long value) {
         this.time = time;
         this.value = value;
     }
@@ -27,11 +27,11 @@ public class HourlyConsumptionDTO {
         this.time = time;
     }
 
-    public Integer getValue() {
+    public Long getValue() {
         return value;
     }
 
-    public void setValue(Integer value) {
+    public void setValue(Long value) {
         this.value = value;
     }
 
@@ -0,0 +1,108 @@
+package com.example.monitoring.service.dtos;
+
+public class IngestStatsDTO {
+    private double rateLimitPerSecond;
+    private double currentRatePerSecond;
+    private long processedMeasurements;
+    private long throttledBatches;
+    // Time throttled batches were held unacked in the prefetch window
+    private long averageHoldMs;
+    private long maxHoldMs;
+    // Time from publishing to processing, broker queue and prefetch window included
+    private long averageQueueWaitMs;
+    private long maxQueueWaitMs;
+
+    public IngestStatsDTO() {
+    }
+
+    public IngestStatsDTO(double rateLimitPerSecond, double currentRatePerSecond, long processedMeasurements,
+                          long throttledBatches, long averageHoldMs, long maxHoldMs,
+                          long averageQueueWaitMs, long maxQueueWaitMs) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+        this.currentRatePerSecond = currentRatePerSecond;
+        this.processedMeasurements = processedMeasurements;
+        this.throttledBatches = throttledBatches;
+        this.averageHoldMs = averageHoldMs;
+        this.maxHoldMs = maxHoldMs;
+        this.averageQueueWaitMs = averageQueueWaitMs;
+        this.maxQueueWaitMs = maxQueueWaitMs;
+    }
+
+    public double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public void setRateLimitPerSecond(double rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+    }
+
+    public double getCurrentRatePerSecond() {
+        return currentRatePerSecond;
+    }
+
+    public void setCurrentRatePerSecond(double currentRatePerSecond) {
+        this.currentRatePerSecond = currentRatePerSecond;
+    }
+
+    public long getProcessedMeasurements() {
+        return processedMeasurements;
+    }
+
+    public void setProcessedMeasurements(long processedMeasurements) {
+        this.processedMeasurements = processedMeasurements;
+    }
+
+    public long getThrottledBatches() {
+        return throttledBatches;
+    }
+
+    public void setThrottledBatches(long throttledBatches) {
+        this.throttledBatches = throttledBatches;
+    }
+
+    public long getAverageHoldMs() {
+        return averageHoldMs;
+    }
+
+    public void setAverageHoldMs(long averageHoldMs) {
+        this.averageHoldMs = averageHoldMs;
+    }
+
+    public long getMaxHoldMs() {
+        return maxHoldMs;
+    }
+
+    public void setMaxHoldMs(long maxHoldMs) {
+        this.maxHoldMs = maxHoldMs;
+    }
+
+    public long getAverageQueueWaitMs() {
+        return averageQueueWaitMs;
+    }
+
+    public void setAverageQueueWaitMs(long averageQueueWaitMs) {
+        this.averageQueueWaitMs = averageQueueWaitMs;
+    }
+
+    public long getMaxQueueWaitMs() {
+        return maxQueueWaitMs;
+    }
+
+    public void setMaxQueueWaitMs(long maxQueueWaitMs) {
+        this.maxQueueWaitMs = maxQueueWaitMs;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestStatsDTO{" +
+                "rateLimitPerSecond=" + rateLimitPerSecond +
+                ", currentRatePerSecond=" + currentRatePerSecond +
+                ", processedMeasurements=" + processedMeasurements +
+                ", throttledBatches=" + throttledBatches +
+                ", averageHoldMs=" + averageHoldMs +
+                ", maxHoldMs=" + maxHoldMs +
+                ", averageQueueWaitMs=" + averageQueueWaitMs +
+                ", maxQueueWaitMs=" + maxQueueWaitMs +
+                '}';
+    }
+}
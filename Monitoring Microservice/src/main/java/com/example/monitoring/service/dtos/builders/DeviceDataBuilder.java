@@ -3,20 +3,21 @@ package com.example.monitoring.service.dtos.builders;
 import com.example.monitoring.service.dtos.DeviceDataDTO;
 import com.example.monitoring.service.entities.DeviceData;
 
+import java.util.UUID;
+
 public class DeviceDataBuilder {
     private DeviceDataBuilder() {
     }
 
     public static DeviceDataDTO toDeviceDataDTO(DeviceData deviceData) {
-        return new DeviceDataDTO(deviceData.getId(), deviceData.getDate(), deviceData.getTime(), deviceData.getValue());
+        return new DeviceDataDTO(deviceData.getDate(), deviceData.getTime(), deviceData.getValue());
     }
 
-    public static DeviceData toEntity(DeviceDataDTO deviceDataDTO) {
+    public static DeviceData toEntity(UUID deviceId, DeviceDataDTO deviceDataDTO) {
         return new DeviceData(
-            deviceDataDTO.getId(),
-            deviceDataDTO.getDate(),
-            deviceDataDTO.getTime(),
+            deviceId,
+            deviceDataDTO.getDate().atTime(deviceDataDTO.getTime()),
             deviceDataDTO.getValue()
         );
     }
-}
\ No newline at end of file
+}
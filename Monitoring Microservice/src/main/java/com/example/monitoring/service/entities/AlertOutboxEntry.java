@@ -0,0 +1,79 @@
+package com.example.monitoring.service.entities;
+
+import com.example.monitoring.service.messaging.AlertEventType;
+import com.example.monitoring.service.messaging.DeviceAlertMessageType;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An alert written in the same transaction as the hourly totals that raised it, deleted once the broker confirmed it.
+ */
+@Entity
+@Table(name = "alert_outbox")
+public class AlertOutboxEntry implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "device_id", nullable = false)
+    private UUID deviceId;
+
+    private Integer value;
+
+    private String timestamp;
+
+    @Enumerated(EnumType.STRING)
+    private AlertEventType type;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public AlertOutboxEntry() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getDeviceId() {
+        return deviceId;
+    }
+
+    public Integer getValue() {
+        return value;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public AlertEventType getType() {
+        return type;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public DeviceAlertMessageType toMessage() {
+        return new DeviceAlertMessageType(deviceId, value, timestamp, type);
+    }
+
+    @Override
+    public String toString() {
+        return "AlertOutboxEntry{" +
+                "id=" + id +
+                ", deviceId=" + deviceId +
+                ", type=" + type +
+                '}';
+    }
+}
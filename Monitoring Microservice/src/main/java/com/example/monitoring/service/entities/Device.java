@@ -1,18 +1,19 @@
 package com.example.monitoring.service.entities;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
-import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.List;
 import java.util.UUID;
 
+// device_data rows are removed by the ON DELETE CASCADE foreign key declared in DeviceDataSchema.
 @Entity
 @Table(name = "devices")
 public class Device implements Serializable {
@@ -27,8 +28,10 @@ public class Device implements Serializable {
     @NotNull(message = "max consumption value is required")
     private Integer maximumConsumptionValue;
 
-    @OneToMany(mappedBy = "device", orphanRemoval = true)
-    private List<DeviceData> data;
+    // Version of the device in Device Management, written only through the upserts of DeviceRepositoryCustom
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
 
     public Device() {}
 
@@ -53,12 +56,12 @@ public class Device implements Serializable {
         this.maximumConsumptionValue = maximumConsumptionValue;
     }
 
-    public List<DeviceData> getData() {
-        return data;
+    public long getVersion() {
+        return version;
     }
 
-    public void setData(List<DeviceData> data) {
-        this.data = data;
+    public void setVersion(long version) {
+        this.version = version;
     }
 
     @Override
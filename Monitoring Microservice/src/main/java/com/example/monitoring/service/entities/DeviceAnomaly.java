@@ -0,0 +1,78 @@
+package com.example.monitoring.service.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A measurement flagged by an anomaly rule, written once the measurement itself has been persisted.
+ */
+@Entity
+@Table(name = "device_anomalies", indexes = @Index(name = "idx_device_anomalies_device_id", columnList = "device_id, id"))
+public class DeviceAnomaly implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "device_id", nullable = false)
+    private UUID deviceId;
+
+    @Column(nullable = false)
+    private String rule;
+
+    private Integer value;
+
+    // Measurement time as sent by the device
+    private String timestamp;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+
+    public DeviceAnomaly() {}
+
+    public DeviceAnomaly(UUID deviceId, String rule, Integer value, String timestamp, LocalDateTime detectedAt) {
+        this.deviceId = deviceId;
+        this.rule = rule;
+        this.value = value;
+        this.timestamp = timestamp;
+        this.detectedAt = detectedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getDeviceId() {
+        return deviceId;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public Integer getValue() {
+        return value;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceAnomaly [deviceId=" + deviceId + ", rule=" + rule + ", value=" + value + ", timestamp=" + timestamp + "]";
+    }
+}
@@ -1,97 +1,70 @@
 package com.example.monitoring.service.entities;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
 import java.io.Serial;
 import java.io.Serializable;
-import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Date;
 import java.util.UUID;
 
+/**
+ * Hourly consumption of a device. The table is range-partitioned by month on bucket_start; its DDL and
+ * partitions are managed by DeviceDataSchema and DeviceDataPartitionManager, not by Hibernate.
+ */
 @Entity
 @Table(name = "device_data")
+@IdClass(DeviceDataId.class)
 public class DeviceData implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue
-    @UuidGenerator
     @JdbcTypeCode(SqlTypes.UUID)
-    private UUID id;
+    @Column(name = "device_id")
+    private UUID deviceId;
 
-    @NotNull(message = "date is required")
-    private LocalDate date;
-
-    @NotNull(message = "time is required")
-    private LocalTime time;
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
 
     @NotNull(message = "value is required")
     private Integer value;
 
-    @ManyToOne
-    private Device device;
-
     public DeviceData() {}
 
-    public DeviceData(LocalDate date, LocalTime time, Integer value) {
-        this.date = date;
-        this.time = time;
-        this.value = value;
-    }
-
-    public DeviceData(UUID id, LocalDate date, LocalTime time, Integer value) {
-        this.id = id;
-        this.date = date;
-        this.time = time;
+    public DeviceData(UUID deviceId, LocalDateTime bucketStart, Integer value) {
+        this.deviceId = deviceId;
+        this.bucketStart = bucketStart;
         this.value = value;
     }
 
-    public DeviceData(LocalDate date, LocalTime time, Integer value, Device device) {
-        this.date = date;
-        this.time = time;
-        this.value = value;
-        this.device = device;
+    public UUID getDeviceId() {
+        return deviceId;
     }
 
-    public DeviceData(UUID id, LocalDate date, LocalTime time, Integer value, Device device) {
-        this.id = id;
-        this.date = date;
-        this.time = time;
-        this.value = value;
-        this.device = device;
+    public void setDeviceId(UUID deviceId) {
+        this.deviceId = deviceId;
     }
 
-    public UUID getId() {
-        return id;
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
     }
 
-    public void setId(UUID id) {
-        this.id = id;
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
     }
 
     public LocalDate getDate() {
-        return date;
-    }
-
-    public void setDate(LocalDate date) {
-        this.date = date;
+        return bucketStart.toLocalDate();
     }
 
     public LocalTime getTime() {
-        return time;
-    }
-
-    public void setTime(LocalTime time) {
-        this.time = time;
+        return bucketStart.toLocalTime();
     }
 
     public Integer getValue() {
@@ -102,22 +75,12 @@ public class DeviceData implements Serializable {
         this.value = value;
     }
 
-    public Device getDevice() {
-        return device;
-    }
-
-    public void setDevice(Device device) {
-        this.device = device;
-    }
-
     @Override
     public String toString() {
         return "DeviceData{" +
-                "id=" + id +
-                ", date=" + date +
-                ", time=" + time +
+                "deviceId=" + deviceId +
+                ", bucketStart=" + bucketStart +
                 ", value=" + value +
-                ", device=" + device +
                 '}';
     }
 }
@@ -0,0 +1,43 @@
+package com.example.monitoring.service.entities;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+public class DeviceDataId implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private UUID deviceId;
+    private LocalDateTime bucketStart;
+
+    public DeviceDataId() {}
+
+    public DeviceDataId(UUID deviceId, LocalDateTime bucketStart) {
+        this.deviceId = deviceId;
+        this.bucketStart = bucketStart;
+    }
+
+    public UUID getDeviceId() {
+        return deviceId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DeviceDataId that = (DeviceDataId) o;
+        return Objects.equals(deviceId, that.deviceId) && Objects.equals(bucketStart, that.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(deviceId, bucketStart);
+    }
+}
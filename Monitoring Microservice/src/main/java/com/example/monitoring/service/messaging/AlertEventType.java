@@ -0,0 +1,5 @@
+package com.example.monitoring.service.messaging;
+
+public enum AlertEventType {
+    TRIGGERED, REARMED
+}
@@ -6,6 +6,7 @@ public class DeviceAlertMessageType {
     private UUID deviceId;
     private Integer value;
     private String timestamp;
+    private AlertEventType type;
 
     public DeviceAlertMessageType() {
     }
@@ -16,6 +17,13 @@ public class DeviceAlertMessageType {
         this.timestamp = timestamp;
     }
 
+    public DeviceAlertMessageType(UUID deviceId, Integer value, String timestamp, AlertEventType type) {
+        this.deviceId = deviceId;
+        this.value = value;
+        this.timestamp = timestamp;
+        this.type = type;
+    }
+
     public UUID getDeviceId() {
         return deviceId;
     }
@@ -28,6 +36,10 @@ public class DeviceAlertMessageType {
         return timestamp;
     }
 
+    public AlertEventType getType() {
+        return type;
+    }
+
     public void setDeviceId(UUID deviceId) {
         this.deviceId = deviceId;
     }
@@ -40,8 +52,12 @@ public class DeviceAlertMessageType {
         this.timestamp = timestamp;
     }
 
+    public void setType(AlertEventType type) {
+        this.type = type;
+    }
+
     @Override
     public String toString() {
-        return "DeviceAlertMessageType{" + "deviceId=" + deviceId + ", timestamp=" + timestamp + '}';
+        return "DeviceAlertMessageType{" + "deviceId=" + deviceId + ", timestamp=" + timestamp + ", type=" + type + '}';
     }
 }
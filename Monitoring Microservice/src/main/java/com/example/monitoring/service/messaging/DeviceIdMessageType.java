@@ -6,14 +6,17 @@ public class DeviceIdMessageType {
     private OperationType type;
     private UUID id;
     private Integer maximumConsumptionValue;
+    // The device's version in Device Management, higher for every later change of the same device
+    private Long version;
 
     public DeviceIdMessageType() {
     }
 
-    public DeviceIdMessageType(OperationType type, UUID id, Integer maximumConsumptionValue) {
+    public DeviceIdMessageType(OperationType type, UUID id, Integer maximumConsumptionValue, Long version) {
         this.type = type;
         this.id = id;
         this.maximumConsumptionValue = maximumConsumptionValue;
+        this.version = version;
     }
 
     public OperationType getType() {
@@ -34,12 +37,19 @@ public class DeviceIdMessageType {
     public void setMaximumConsumptionValue(Integer maximumConsumptionValue) {
         this.maximumConsumptionValue = maximumConsumptionValue;
     }
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 
     @Override
     public String toString() {
         return "DeviceIdMessageType{" +
                 "type=" + type +
                 ", id=" + id +
+                ", version=" + version +
                 '}';
     }
 }
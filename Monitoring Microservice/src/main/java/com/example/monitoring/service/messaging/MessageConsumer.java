@@ -1,38 +1,197 @@
 package com.example.monitoring.service.messaging;
 
 import com.example.monitoring.service.dtos.DeviceDTO;
+import com.example.monitoring.service.services.AlertEngine;
+import com.example.monitoring.service.services.AnomalyEngine;
+import com.example.monitoring.service.services.DeviceCache;
 import com.example.monitoring.service.services.DeviceDataService;
 import com.example.monitoring.service.services.DeviceService;
+import com.example.monitoring.service.services.HourlyAccumulator;
+import com.example.monitoring.service.services.IngestMetrics;
+import com.example.monitoring.service.services.IngestLanes;
+import com.example.monitoring.service.services.IngestThrottle;
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 public class MessageConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageConsumer.class);
+    // Publish time in epoch milliseconds, set by the simulator
+    private static final String PUBLISHED_AT_HEADER = "published_at";
     private final DeviceService deviceService;
     private final DeviceDataService deviceDataService;
+    private final HourlyAccumulator hourlyAccumulator;
+    private final DeviceCache deviceCache;
+    private final IngestThrottle ingestThrottle;
+    private final IngestLanes ingestLanes;
+    private final AlertEngine alertEngine;
+    private final AnomalyEngine anomalyEngine;
+    private final IngestMetrics ingestMetrics;
+    private final MessageProducer messageProducer;
+    private final Map<Channel, OrderedAcks> acksByChannel = new ConcurrentHashMap<>();
 
     @Autowired
-    public MessageConsumer(DeviceService deviceService, DeviceDataService deviceDataService) {
+    public MessageConsumer(DeviceService deviceService, DeviceDataService deviceDataService, HourlyAccumulator hourlyAccumulator,
+                           DeviceCache deviceCache, IngestThrottle ingestThrottle, IngestLanes ingestLanes, AlertEngine alertEngine,
+                           AnomalyEngine anomalyEngine, IngestMetrics ingestMetrics, MessageProducer messageProducer) {
         this.deviceService = deviceService;
         this.deviceDataService = deviceDataService;
+        this.hourlyAccumulator = hourlyAccumulator;
+        this.deviceCache = deviceCache;
+        this.ingestThrottle = ingestThrottle;
+        this.ingestLanes = ingestLanes;
+        this.alertEngine = alertEngine;
+        this.anomalyEngine = anomalyEngine;
+        this.ingestMetrics = ingestMetrics;
+        this.messageProducer = messageProducer;
     }
 
+    /**
+     * Applies a device event to the shared database once, then republishes it so that every replica, this one
+     * included, updates its in-memory state.
+     */
     @RabbitListener(queues = "${rabbitmq.queue.monitoring}")
     public void receiveMessageFromDeviceService(DeviceIdMessageType message) {
         switch (message.getType()) {
-            case INSERT -> {
+            case INSERT, UPDATE -> {
                 DeviceDTO device = new DeviceDTO(message.getId(), message.getMaximumConsumptionValue());
-                deviceService.insert(device);
+                // Messages from before versioning count as the first version
+                long version = message.getVersion() != null ? message.getVersion() : 0;
+                if (deviceService.upsert(device, version)) {
+                    broadcast(message);
+                }
             }
             case DELETE -> {
-                deviceService.delete(message.getId());
+                deviceCache.evict(message.getId());
+                try {
+                    deviceService.delete(message.getId());
+                } finally {
+                    broadcast(message);
+                }
+            }
+            case RESYNC -> LOGGER.warn("Ignoring a resync event on the device queue");
+        }
+    }
+
+    @RabbitListener(queues = "#{deviceEventsQueue.name}")
+    public void receiveDeviceEvent(DeviceIdMessageType message) {
+        switch (message.getType()) {
+            case INSERT, UPDATE -> deviceCache.put(message.getId(), message.getMaximumConsumptionValue());
+            case DELETE -> {
+                deviceCache.evict(message.getId());
+                alertEngine.forget(message.getId());
+                anomalyEngine.forget(message.getId());
+                hourlyAccumulator.forget(message.getId());
+            }
+            case RESYNC -> deviceCache.reload();
+        }
+    }
+
+    // A lost broadcast leaves other replicas stale only until their cache entry expires.
+    private void broadcast(DeviceIdMessageType message) {
+        try {
+            messageProducer.sendDeviceEvent(message);
+        } catch (AmqpException e) {
+            LOGGER.error("Could not republish {} to the other replicas", message, e);
+        }
+    }
+
+    @RabbitListener(queues = "${rabbitmq.queue.data.collection}", containerFactory = "batchListenerContainerFactory")
+    public void receiveMessagesFromDataCollectionService(List<Message<MeasurementMessageType>> messages, Channel channel) {
+        long receivedNanos = System.nanoTime();
+
+        // Lanes finish asynchronously, the prefetch bounds how many deliveries are in flight.
+        OrderedAcks acks = acksOf(channel);
+        acks.register(messages.stream().map(this::deliveryTag).toList());
+
+        ingestThrottle.submit(messages.size(), () -> {
+            recordQueueWait(messages);
+            dispatch(messages, channel, acks, receivedNanos);
+        });
+    }
+
+    private void recordQueueWait(List<Message<MeasurementMessageType>> messages) {
+        long now = System.currentTimeMillis();
+        for (Message<MeasurementMessageType> message : messages) {
+            if (message.getHeaders().get(PUBLISHED_AT_HEADER) instanceof Number publishedAt) {
+                ingestThrottle.recordQueueWait(Math.max(0, now - publishedAt.longValue()));
             }
         }
     }
 
-    @RabbitListener(queues = "${rabbitmq.queue.data.collection}")
-    public void receiveMessageFromDataCollectionService(MeasurementMessageType message) {
-        deviceDataService.insert(message.getDeviceId(), message.getTimestamp(), message.getValue());
+    private void dispatch(List<Message<MeasurementMessageType>> messages, Channel channel, OrderedAcks acks, long receivedNanos) {
+        ingestLanes.dispatch(
+                messages,
+                message -> message.getPayload().getDeviceId(),
+                lane -> {
+                    List<MeasurementMessageType> measurements = lane.stream().map(Message::getPayload).toList();
+                    if (hourlyAccumulator.isEnabled()) {
+                        // Evaluated by the accumulator once the flush holding them has committed.
+                        hourlyAccumulator.add(measurements, channel);
+                    } else {
+                        deviceDataService.insertBatch(measurements);
+                        anomalyEngine.evaluate(measurements);
+                    }
+                },
+                (lane, error) -> complete(channel, acks, lane, error, receivedNanos)
+        );
+    }
+
+    private OrderedAcks acksOf(Channel channel) {
+        // The broker requeues everything unacked on a closed channel, so its tags are dropped.
+        acksByChannel.keySet().removeIf(c -> !c.isOpen());
+        return acksByChannel.computeIfAbsent(channel, c -> new OrderedAcks());
+    }
+
+    private void complete(Channel channel, OrderedAcks acks, List<Message<MeasurementMessageType>> lane,
+                          RuntimeException error, long receivedNanos) {
+        List<Long> deliveryTags = lane.stream().map(this::deliveryTag).toList();
+        if (error != null) {
+            LOGGER.error("Requeueing {} measurements after a failed lane", deliveryTags.size(), error);
+            deliveryTags.forEach(deliveryTag -> nack(channel, deliveryTag));
+            acks.complete(deliveryTags, true, deliveryTag -> ack(channel, deliveryTag));
+            return;
+        }
+
+        ingestMetrics.recordProcessed(deliveryTags.size(), deliveryTags.size() * (System.nanoTime() - receivedNanos));
+        if (hourlyAccumulator.isEnabled()) {
+            // The accumulator acks once the flush that contains these values has committed.
+            acks.complete(deliveryTags, false, deliveryTag -> hourlyAccumulator.acknowledgeOnFlush(channel, deliveryTag));
+            return;
+        }
+
+        acks.complete(deliveryTags, false, deliveryTag -> ack(channel, deliveryTag));
+    }
+
+    private void ack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, true);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Could not ack deliveries up to {}", deliveryTag, e);
+        }
+    }
+
+    private void nack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicNack(deliveryTag, false, true);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Could not requeue delivery {}", deliveryTag, e);
+        }
+    }
+
+    private long deliveryTag(Message<?> message) {
+        return (Long) message.getHeaders().get(AmqpHeaders.DELIVERY_TAG);
     }
 }
@@ -5,6 +5,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Service
 public class MessageProducer {
     private final RabbitTemplate rabbitTemplate;
@@ -12,12 +14,37 @@ public class MessageProducer {
     @Value("${RABBITMQ_ALERT_QUEUE}")
     private String ALERT_QUEUE;
 
+    @Value("${rabbitmq.exchange.device-events}")
+    private String DEVICE_EVENTS_EXCHANGE;
+
+    @Value("${rabbitmq.exchange.registry}")
+    private String REGISTRY_EXCHANGE;
+
+    @Value("${monitoring.alert.outbox.confirm-timeout-ms}")
+    private long CONFIRM_TIMEOUT_MS;
+
     @Autowired
     public MessageProducer(RabbitTemplate rabbitTemplate) {
         this.rabbitTemplate = rabbitTemplate;
     }
 
-    public void sendDeviceAlert(DeviceAlertMessageType message) {
-        rabbitTemplate.convertAndSend(ALERT_QUEUE, message);
+    /**
+     * Publishes the alerts on one dedicated channel and waits for the broker to confirm all of them.
+     * Throws if any alert is nacked or the confirms do not arrive in time.
+     */
+    public void sendDeviceAlertsConfirmed(Collection<DeviceAlertMessageType> messages) {
+        rabbitTemplate.invoke(operations -> {
+            messages.forEach(message -> operations.convertAndSend(ALERT_QUEUE, message));
+            operations.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+            return null;
+        });
+    }
+
+    public void sendDeviceEvent(DeviceIdMessageType message) {
+        rabbitTemplate.convertAndSend(DEVICE_EVENTS_EXCHANGE, "", message);
+    }
+
+    public void sendHeartbeat(MonitoringHeartbeatMessageType message) {
+        rabbitTemplate.convertAndSend(REGISTRY_EXCHANGE, "", message);
     }
 }
@@ -1,5 +1,7 @@
 package com.example.monitoring.service.messaging;
 
 public enum OperationType {
-    INSERT, DELETE
+    INSERT, UPDATE, DELETE,
+    // Only sent on the device events exchange, once a resync has rewritten the devices table
+    RESYNC
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.monitoring.service.messaging;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Outstanding delivery tags of one channel, in delivery order. Lanes finish deliveries out of order, so only the
+ * highest tag below which every delivery is finished is handed out, to be acked with multiple=true.
+ */
+public class OrderedAcks {
+    private final ArrayDeque<Long> outstanding = new ArrayDeque<>();
+    private final Set<Long> processed = new HashSet<>();
+    private final Set<Long> requeued = new HashSet<>();
+
+    /**
+     * Must be called from the consumer thread in delivery order, before the deliveries are handed to the lanes.
+     */
+    public synchronized void register(Collection<Long> deliveryTags) {
+        outstanding.addAll(deliveryTags);
+    }
+
+    /**
+     * Marks the deliveries as finished and passes the new ack tag to the callback, under the lock so acks are
+     * issued in increasing order. Requeued deliveries were already nacked and are never used as the ack tag.
+     */
+    public synchronized void complete(Collection<Long> deliveryTags, boolean wasRequeued, LongConsumer ack) {
+        (wasRequeued ? requeued : processed).addAll(deliveryTags);
+
+        long ackTag = 0;
+        while (!outstanding.isEmpty()) {
+            Long first = outstanding.peekFirst();
+            if (processed.remove(first)) {
+                ackTag = first;
+            } else if (!requeued.remove(first)) {
+                break;
+            }
+            outstanding.pollFirst();
+        }
+
+        if (ackTag > 0) {
+            ack.accept(ackTag);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.entities.AlertOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AlertOutboxRepository extends JpaRepository<AlertOutboxEntry, Long>, AlertOutboxRepositoryCustom {
+    // SKIP LOCKED lets every replica sweep at the same time without picking the same rows.
+    @Query(value = "SELECT * FROM alert_outbox WHERE created_at < localtimestamp - make_interval(secs => :ageSeconds) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<AlertOutboxEntry> lockStale(@Param("ageSeconds") double ageSeconds, @Param("limit") int limit);
+}
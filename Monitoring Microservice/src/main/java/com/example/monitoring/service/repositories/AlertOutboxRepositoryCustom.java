@@ -0,0 +1,15 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.messaging.DeviceAlertMessageType;
+
+import java.util.List;
+import java.util.Map;
+
+public interface AlertOutboxRepositoryCustom {
+    /**
+     * Writes the alerts in a single statement.
+     *
+     * @return the written alerts by outbox id
+     */
+    Map<Long, DeviceAlertMessageType> insertAll(List<DeviceAlertMessageType> alerts);
+}
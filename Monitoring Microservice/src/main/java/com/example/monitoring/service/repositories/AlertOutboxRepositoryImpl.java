@@ -0,0 +1,66 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.messaging.AlertEventType;
+import com.example.monitoring.service.messaging.DeviceAlertMessageType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class AlertOutboxRepositoryImpl implements AlertOutboxRepositoryCustom {
+    private static final String INSERT_ALL = """
+            INSERT INTO alert_outbox (device_id, value, timestamp, type, created_at)
+            SELECT a.device_id, a.value, a.timestamp, a.type, localtimestamp
+            FROM unnest(?::uuid[], ?::int[], ?::text[], ?::text[]) AS a(device_id, value, timestamp, type)
+            RETURNING id, device_id, value, timestamp, type
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AlertOutboxRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<Long, DeviceAlertMessageType> insertAll(List<DeviceAlertMessageType> alerts) {
+        Map<Long, DeviceAlertMessageType> inserted = new LinkedHashMap<>();
+        if (alerts.isEmpty()) {
+            return inserted;
+        }
+
+        int size = alerts.size();
+        String[] deviceIds = new String[size];
+        Integer[] values = new Integer[size];
+        String[] timestamps = new String[size];
+        String[] types = new String[size];
+        for (int i = 0; i < size; i++) {
+            DeviceAlertMessageType alert = alerts.get(i);
+            deviceIds[i] = alert.getDeviceId().toString();
+            values[i] = alert.getValue();
+            timestamps[i] = alert.getTimestamp();
+            types[i] = alert.getType() != null ? alert.getType().name() : null;
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_ALL);
+            statement.setArray(1, connection.createArrayOf("text", deviceIds));
+            statement.setArray(2, connection.createArrayOf("int4", values));
+            statement.setArray(3, connection.createArrayOf("text", timestamps));
+            statement.setArray(4, connection.createArrayOf("text", types));
+            return statement;
+        }, resultSet -> {
+            String type = resultSet.getString("type");
+            inserted.put(resultSet.getLong("id"), new DeviceAlertMessageType(
+                    resultSet.getObject("device_id", UUID.class),
+                    (Integer) resultSet.getObject("value"),
+                    resultSet.getString("timestamp"),
+                    type != null ? AlertEventType.valueOf(type) : null
+            ));
+        });
+
+        return inserted;
+    }
+}
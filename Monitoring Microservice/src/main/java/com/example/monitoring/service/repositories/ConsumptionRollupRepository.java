@@ -0,0 +1,139 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.dtos.HourlyBucket;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Daily and monthly totals per device, maintained alongside the hourly rows so long-range queries never read device_data.
+ */
+@Repository
+public class ConsumptionRollupRepository {
+    private static final String ADD_TO_DAILY = """
+            INSERT INTO device_data_daily (device_id, day, value)
+            SELECT * FROM unnest(?::uuid[], ?::date[], ?::bigint[])
+            ON CONFLICT (device_id, day) DO UPDATE SET value = device_data_daily.value + excluded.value
+            """;
+
+    private static final String ADD_TO_MONTHLY = """
+            INSERT INTO device_data_monthly (device_id, month, value)
+            SELECT * FROM unnest(?::uuid[], ?::date[], ?::bigint[])
+            ON CONFLICT (device_id, month) DO UPDATE SET value = device_data_monthly.value + excluded.value
+            """;
+
+    private static final String SUM_HOURLY = """
+            SELECT bucket_start AS period, sum(value) AS value FROM device_data
+            WHERE device_id = ANY (?::uuid[]) AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY bucket_start
+            """;
+
+    private static final String SUM_DAILY = """
+            SELECT day::timestamp AS period, sum(value) AS value FROM device_data_daily
+            WHERE device_id = ANY (?::uuid[]) AND day >= ? AND day < ?
+            GROUP BY day
+            """;
+
+    private static final String SUM_MONTHLY = """
+            SELECT month::timestamp AS period, sum(value) AS value FROM device_data_monthly
+            WHERE device_id = ANY (?::uuid[]) AND month >= ? AND month < ?
+            GROUP BY month
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ConsumptionRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void addIncrements(Map<HourlyBucket, Integer> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        Map<PeriodKey, Long> daily = new HashMap<>();
+        Map<PeriodKey, Long> monthly = new HashMap<>();
+        increments.forEach((bucket, value) -> {
+            LocalDate day = bucket.start().toLocalDate();
+            daily.merge(new PeriodKey(bucket.deviceId(), day), value.longValue(), Long::sum);
+            monthly.merge(new PeriodKey(bucket.deviceId(), day.withDayOfMonth(1)), value.longValue(), Long::sum);
+        });
+
+        upsert(ADD_TO_DAILY, daily);
+        upsert(ADD_TO_MONTHLY, monthly);
+    }
+
+    public Map<LocalDateTime, Long> sumHourly(List<UUID> deviceIds, LocalDateTime from, LocalDateTime to) {
+        return sum(SUM_HOURLY, deviceIds, from, to);
+    }
+
+    public Map<LocalDateTime, Long> sumDaily(List<UUID> deviceIds, LocalDate from, LocalDate to) {
+        return sum(SUM_DAILY, deviceIds, from, to);
+    }
+
+    public Map<LocalDateTime, Long> sumMonthly(List<UUID> deviceIds, LocalDate from, LocalDate to) {
+        return sum(SUM_MONTHLY, deviceIds, from, to);
+    }
+
+    private void upsert(String sql, Map<PeriodKey, Long> totals) {
+        int size = totals.size();
+        String[] deviceIds = new String[size];
+        String[] periods = new String[size];
+        Long[] values = new Long[size];
+
+        List<Map.Entry<PeriodKey, Long>> sorted = new ArrayList<>(totals.entrySet());
+        sorted.sort(Map.Entry.comparingByKey(PeriodKey.ROW_ORDER));
+
+        int index = 0;
+        for (Map.Entry<PeriodKey, Long> total : sorted) {
+            deviceIds[index] = total.getKey().deviceId().toString();
+            periods[index] = total.getKey().start().toString();
+            values[index] = total.getValue();
+            index++;
+        }
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("text", deviceIds));
+            statement.setArray(2, connection.createArrayOf("text", periods));
+            statement.setArray(3, connection.createArrayOf("int8", values));
+            return statement;
+        });
+    }
+
+    private Map<LocalDateTime, Long> sum(String sql, List<UUID> deviceIds, Object from, Object to) {
+        Map<LocalDateTime, Long> totals = new HashMap<>();
+        if (deviceIds.isEmpty()) {
+            return totals;
+        }
+
+        String[] ids = deviceIds.stream().map(UUID::toString).toArray(String[]::new);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("text", ids));
+            statement.setObject(2, from);
+            statement.setObject(3, to);
+            return statement;
+        }, resultSet -> {
+            totals.put(resultSet.getObject("period", LocalDateTime.class), resultSet.getLong("value"));
+        });
+
+        return totals;
+    }
+
+    private record PeriodKey(UUID deviceId, LocalDate start) {
+        private static final Comparator<PeriodKey> ROW_ORDER = Comparator
+                .comparing(PeriodKey::deviceId, RowOrder.DEVICE_ID)
+                .thenComparing(PeriodKey::start);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.entities.DeviceAnomaly;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface DeviceAnomalyRepository extends JpaRepository<DeviceAnomaly, Long> {
+
+    List<DeviceAnomaly> findByDeviceIdOrderByIdDesc(UUID deviceId, Limit limit);
+}
@@ -1,18 +1,31 @@
 package com.example.monitoring.service.repositories;
 
-import com.example.monitoring.service.entities.Device;
 import com.example.monitoring.service.entities.DeviceData;
+import com.example.monitoring.service.entities.DeviceDataId;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
-public interface DeviceDataRepository extends JpaRepository<DeviceData, UUID> {
-    Optional<DeviceData> findByDeviceAndDateAndTime(Device device, LocalDate dateTime, LocalTime time);
-    List<DeviceData> findByDevice(Device device);
-    List<DeviceData> findByDeviceAndDate(Device device, LocalDate date);
-    List<DeviceData> findByDeviceIdInAndDate(List<UUID> deviceIds, LocalDate date);
+public interface DeviceDataRepository extends JpaRepository<DeviceData, DeviceDataId>, DeviceDataRepositoryCustom {
+    List<DeviceData> findByDeviceIdOrderByBucketStart(UUID deviceId);
+
+    // Bounding bucket_start lets Postgres prune the monthly partitions outside [from, to).
+    @Query("SELECT d FROM DeviceData d WHERE d.deviceId = :deviceId " +
+            "AND d.bucketStart >= :from AND d.bucketStart < :to ORDER BY d.bucketStart")
+    List<DeviceData> findByDeviceIdInRange(@Param("deviceId") UUID deviceId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    // Keyset page: served from the (device_id, bucket_start) primary key, the caller moves "from" past the last row.
+    @Query("SELECT d FROM DeviceData d WHERE d.deviceId = :deviceId " +
+            "AND d.bucketStart >= :from AND d.bucketStart < :to ORDER BY d.bucketStart")
+    List<DeviceData> findPageByDeviceId(@Param("deviceId") UUID deviceId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        Limit limit);
 }
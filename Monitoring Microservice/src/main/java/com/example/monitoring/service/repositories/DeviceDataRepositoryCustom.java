@@ -0,0 +1,31 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.dtos.HourlyBucket;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface DeviceDataRepositoryCustom {
+    /**
+     * Adds every increment to its hourly row in a single statement, creating the rows that do not exist yet.
+     *
+     * @return the new hourly totals of the touched buckets
+     */
+    Map<HourlyBucket, Integer> addToHourlyValues(Map<HourlyBucket, Integer> increments);
+
+    /**
+     * Atomically adds the value to its hourly row, creating the row if needed.
+     *
+     * @return the new hourly total
+     */
+    int addToHourlyValue(HourlyBucket bucket, int value);
+
+    /**
+     * Sums the devices' hourly values of the day in the database.
+     *
+     * @return the total of every hour of the day, indexed by hour
+     */
+    long[] sumHourlyValues(List<UUID> deviceIds, LocalDate date);
+}
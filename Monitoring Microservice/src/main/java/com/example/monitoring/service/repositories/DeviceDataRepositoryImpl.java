@@ -0,0 +1,118 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.dtos.HourlyBucket;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class DeviceDataRepositoryImpl implements DeviceDataRepositoryCustom {
+    // The conflict target is the primary key of the partitioned table, so rows are merged within their partition.
+    private static final String ADD_TO_HOURLY_VALUES = """
+            INSERT INTO device_data (device_id, bucket_start, value)
+            SELECT i.device_id, i.bucket_start, i.value
+            FROM unnest(?::uuid[], ?::timestamp[], ?::int[]) AS i(device_id, bucket_start, value)
+            ON CONFLICT (device_id, bucket_start) DO UPDATE SET value = device_data.value + excluded.value
+            RETURNING device_id, bucket_start, value
+            """;
+
+    private static final String ADD_TO_HOURLY_VALUE = """
+            INSERT INTO device_data (device_id, bucket_start, value)
+            VALUES (?, ?, ?)
+            ON CONFLICT (device_id, bucket_start) DO UPDATE SET value = device_data.value + excluded.value
+            RETURNING value
+            """;
+
+    // At most 24 rows come back whatever the number of devices.
+    private static final String SUM_HOURLY_VALUES = """
+            SELECT extract(hour FROM bucket_start)::int AS hour, sum(value) AS value
+            FROM device_data
+            WHERE device_id = ANY (?::uuid[]) AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeviceDataRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<HourlyBucket, Integer> addToHourlyValues(Map<HourlyBucket, Integer> increments) {
+        Map<HourlyBucket, Integer> totals = new HashMap<>();
+        if (increments.isEmpty()) {
+            return totals;
+        }
+
+        int size = increments.size();
+        String[] deviceIds = new String[size];
+        String[] bucketStarts = new String[size];
+        Integer[] values = new Integer[size];
+
+        List<Map.Entry<HourlyBucket, Integer>> sorted = new ArrayList<>(increments.entrySet());
+        sorted.sort(Map.Entry.comparingByKey(RowOrder.HOURLY_BUCKET));
+
+        int index = 0;
+        for (Map.Entry<HourlyBucket, Integer> increment : sorted) {
+            deviceIds[index] = increment.getKey().deviceId().toString();
+            bucketStarts[index] = increment.getKey().start().toString();
+            values[index] = increment.getValue();
+            index++;
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ADD_TO_HOURLY_VALUES);
+            statement.setArray(1, connection.createArrayOf("text", deviceIds));
+            statement.setArray(2, connection.createArrayOf("text", bucketStarts));
+            statement.setArray(3, connection.createArrayOf("int4", values));
+            return statement;
+        }, resultSet -> {
+            HourlyBucket bucket = new HourlyBucket(
+                    resultSet.getObject("device_id", UUID.class),
+                    resultSet.getObject("bucket_start", LocalDateTime.class)
+            );
+            totals.put(bucket, resultSet.getInt("value"));
+        });
+
+        return totals;
+    }
+
+    @Override
+    public int addToHourlyValue(HourlyBucket bucket, int value) {
+        Integer total = jdbcTemplate.queryForObject(
+                ADD_TO_HOURLY_VALUE,
+                Integer.class,
+                bucket.deviceId(),
+                bucket.start(),
+                value
+        );
+        return total != null ? total : value;
+    }
+
+    @Override
+    public long[] sumHourlyValues(List<UUID> deviceIds, LocalDate date) {
+        long[] totals = new long[24];
+        if (deviceIds.isEmpty()) {
+            return totals;
+        }
+
+        String[] ids = deviceIds.stream().map(UUID::toString).toArray(String[]::new);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SUM_HOURLY_VALUES);
+            statement.setArray(1, connection.createArrayOf("text", ids));
+            statement.setObject(2, date.atStartOfDay());
+            statement.setObject(3, date.plusDays(1).atStartOfDay());
+            return statement;
+        }, resultSet -> {
+            totals[resultSet.getInt("hour")] = resultSet.getLong("value");
+        });
+
+        return totals;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.dtos.DeviceSnapshotDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface DeviceRepositoryCustom {
+    /**
+     * Inserts the device, or updates it if the stored version is older, in a single statement.
+     *
+     * @return false if the stored version was the same or newer and nothing was written
+     */
+    boolean upsertIfNewer(UUID id, Integer maximumConsumptionValue, long version);
+
+    /**
+     * Same as {@link #upsertIfNewer} for every device of the list, in a single statement.
+     *
+     * @return the devices that were written
+     */
+    List<DeviceSnapshotDTO> upsertAllIfNewer(List<DeviceSnapshotDTO> devices);
+
+    Map<UUID, Long> findAllVersions();
+
+    /**
+     * Deletes every given device whose stored version is still at most the given one, in a single statement.
+     *
+     * @return the ids that were deleted
+     */
+    List<UUID> deleteAllNotNewer(Map<UUID, Long> versions);
+}
@@ -0,0 +1,122 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.dtos.DeviceSnapshotDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class DeviceRepositoryImpl implements DeviceRepositoryCustom {
+    // Events and snapshot pages can arrive in any order, only a newer version replaces the stored one.
+    private static final String UPSERT_IF_NEWER = """
+            INSERT INTO devices (id, maximum_consumption_value, version)
+            VALUES (?, ?, ?)
+            ON CONFLICT (id) DO UPDATE
+            SET maximum_consumption_value = excluded.maximum_consumption_value, version = excluded.version
+            WHERE devices.version < excluded.version
+            """;
+
+    private static final String UPSERT_ALL_IF_NEWER = """
+            INSERT INTO devices (id, maximum_consumption_value, version)
+            SELECT i.id, i.maximum_consumption_value, i.version
+            FROM unnest(?::uuid[], ?::int[], ?::int8[]) AS i(id, maximum_consumption_value, version)
+            ON CONFLICT (id) DO UPDATE
+            SET maximum_consumption_value = excluded.maximum_consumption_value, version = excluded.version
+            WHERE devices.version < excluded.version
+            RETURNING id, maximum_consumption_value, version
+            """;
+
+    // A device written by an event after the versions were read is newer and stays.
+    private static final String DELETE_ALL_NOT_NEWER = """
+            DELETE FROM devices d
+            USING unnest(?::uuid[], ?::int8[]) AS r(id, version)
+            WHERE d.id = r.id AND d.version <= r.version
+            RETURNING d.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeviceRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean upsertIfNewer(UUID id, Integer maximumConsumptionValue, long version) {
+        return jdbcTemplate.update(UPSERT_IF_NEWER, id, maximumConsumptionValue, version) > 0;
+    }
+
+    @Override
+    public List<DeviceSnapshotDTO> upsertAllIfNewer(List<DeviceSnapshotDTO> devices) {
+        List<DeviceSnapshotDTO> written = new ArrayList<>();
+        if (devices.isEmpty()) {
+            return written;
+        }
+
+        String[] ids = new String[devices.size()];
+        Integer[] maximumConsumptionValues = new Integer[devices.size()];
+        Long[] versions = new Long[devices.size()];
+        for (int i = 0; i < devices.size(); i++) {
+            ids[i] = devices.get(i).getId().toString();
+            maximumConsumptionValues[i] = devices.get(i).getMaximumConsumptionValue();
+            versions[i] = devices.get(i).getVersion();
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_ALL_IF_NEWER);
+            statement.setArray(1, connection.createArrayOf("text", ids));
+            statement.setArray(2, connection.createArrayOf("int4", maximumConsumptionValues));
+            statement.setArray(3, connection.createArrayOf("int8", versions));
+            return statement;
+        }, resultSet -> {
+            written.add(new DeviceSnapshotDTO(
+                    resultSet.getObject("id", UUID.class),
+                    resultSet.getInt("maximum_consumption_value"),
+                    resultSet.getLong("version")
+            ));
+        });
+
+        return written;
+    }
+
+    @Override
+    public Map<UUID, Long> findAllVersions() {
+        Map<UUID, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT id, version FROM devices",
+                resultSet -> {
+                    versions.put(resultSet.getObject("id", UUID.class), resultSet.getLong("version"));
+                });
+        return versions;
+    }
+
+    @Override
+    public List<UUID> deleteAllNotNewer(Map<UUID, Long> versions) {
+        List<UUID> deleted = new ArrayList<>();
+        if (versions.isEmpty()) {
+            return deleted;
+        }
+
+        String[] ids = new String[versions.size()];
+        Long[] storedVersions = new Long[versions.size()];
+        int i = 0;
+        for (Map.Entry<UUID, Long> entry : versions.entrySet()) {
+            ids[i] = entry.getKey().toString();
+            storedVersions[i] = entry.getValue();
+            i++;
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_ALL_NOT_NEWER);
+            statement.setArray(1, connection.createArrayOf("text", ids));
+            statement.setArray(2, connection.createArrayOf("int8", storedVersions));
+            return statement;
+        }, resultSet -> {
+            deleted.add(resultSet.getObject("id", UUID.class));
+        });
+
+        return deleted;
+    }
+}
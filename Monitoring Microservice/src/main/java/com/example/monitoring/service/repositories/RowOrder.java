@@ -0,0 +1,23 @@
+package com.example.monitoring.service.repositories;
+
+import com.example.monitoring.service.dtos.HourlyBucket;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * The order multi-row upserts write their rows in. Every writer locks rows in the same order, so concurrent upserts
+ * over overlapping rows wait on each other instead of deadlocking. UUIDs compare unsigned, as Postgres does.
+ */
+final class RowOrder {
+    static final Comparator<UUID> DEVICE_ID = Comparator
+            .comparing((UUID id) -> id.getMostSignificantBits(), Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    static final Comparator<HourlyBucket> HOURLY_BUCKET = Comparator
+            .comparing(HourlyBucket::deviceId, DEVICE_ID)
+            .thenComparing(HourlyBucket::start);
+
+    private RowOrder() {
+    }
+}
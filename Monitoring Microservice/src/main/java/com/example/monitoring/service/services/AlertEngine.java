@@ -0,0 +1,101 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.messaging.AlertEventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns hourly totals into alert events. A device fires once when its total crosses the maximum, stays silent
+ * until a complete hour ends at or below the re-arm level (maximum * rearm ratio), and never fires twice within the
+ * cooldown. A new hour's running total always starts low, so it is never taken as a drop; an hour without any
+ * measurement counts as a total of zero.
+ * Times are measurement times, so replayed or simulated data is judged by when it was measured. The state is kept
+ * per replica, so every measurement of a device has to reach the same replica (consistent-hash routing or the
+ * sharded topology), otherwise one crossing fires on every replica that saw part of the hour.
+ */
+@Service
+public class AlertEngine {
+    private final Map<UUID, AlertState> states = new ConcurrentHashMap<>();
+
+    @Value("${monitoring.alert.cooldown-minutes}")
+    private long COOLDOWN_MINUTES;
+
+    @Value("${monitoring.alert.rearm-ratio}")
+    private double REARM_RATIO;
+
+    public Optional<AlertEventType> evaluate(UUID deviceId, int total, int maximum, LocalDateTime measuredAt) {
+        AlertState previous = states.getOrDefault(deviceId, AlertState.ARMED);
+        LocalDateTime hour = measuredAt.truncatedTo(ChronoUnit.HOURS);
+
+        boolean armed = previous.armed();
+        AlertState tracked = previous;
+        if (previous.hour() == null || hour.isAfter(previous.hour())) {
+            // The tracked hour is complete, and so is every empty hour between it and this one.
+            boolean skippedHours = previous.hour() != null && hour.isAfter(previous.hour().plusHours(1));
+            if (!armed && (skippedHours || previous.hourTotal() <= maximum * REARM_RATIO)) {
+                armed = true;
+            }
+            tracked = new AlertState(armed, previous.lastTriggeredAt(), hour, total);
+        } else if (hour.equals(previous.hour())) {
+            tracked = new AlertState(armed, previous.lastTriggeredAt(), hour, total);
+        }
+        // Totals of an hour before the tracked one arrive late and can still fire, but do not move the hour.
+
+        AlertState next;
+        Optional<AlertEventType> event;
+        if (total > maximum && armed && !inCooldown(previous, measuredAt)) {
+            next = new AlertState(false, measuredAt, tracked.hour(), tracked.hourTotal());
+            event = Optional.of(AlertEventType.TRIGGERED);
+        } else {
+            next = tracked;
+            event = armed && !previous.armed() ? Optional.of(AlertEventType.REARMED) : Optional.empty();
+        }
+
+        if (!next.equals(previous)) {
+            // A device's totals are evaluated by one thread at a time (its ingest lane or the accumulator flush).
+            states.put(deviceId, next);
+            undoOnRollback(deviceId, previous, next);
+        }
+        return event;
+    }
+
+    public void forget(UUID deviceId) {
+        states.remove(deviceId);
+    }
+
+    private boolean inCooldown(AlertState state, LocalDateTime measuredAt) {
+        return state.lastTriggeredAt() != null && measuredAt.isBefore(state.lastTriggeredAt().plusMinutes(COOLDOWN_MINUTES));
+    }
+
+    // The events are only published if the totals commit; after a rollback the redelivered measurements must fire again.
+    private void undoOnRollback(UUID deviceId, AlertState previous, AlertState next) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    states.replace(deviceId, next, previous);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param hour      start of the latest hour seen for the device, null before the first total
+     * @param hourTotal running total of that hour
+     */
+    private record AlertState(boolean armed, LocalDateTime lastTriggeredAt, LocalDateTime hour, int hourTotal) {
+        private static final AlertState ARMED = new AlertState(true, null, null, 0);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.entities.AlertOutboxEntry;
+import com.example.monitoring.service.messaging.DeviceAlertMessageType;
+import com.example.monitoring.service.messaging.MessageProducer;
+import com.example.monitoring.service.repositories.AlertOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for device alerts. Alerts are written to alert_outbox with the hourly totals that raised
+ * them and handed to a background publisher once that transaction commits, so a rolled-back flush never alerts
+ * and the broker is never called while the transaction is open. Rows are deleted after the broker confirmed them;
+ * anything the publisher could not deliver, or that did not fit the in-memory queue, is picked up by the sweeper.
+ */
+@Service
+public class AlertOutbox {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlertOutbox.class);
+
+    private final AlertOutboxRepository alertOutboxRepository;
+    private final MessageProducer messageProducer;
+    private final TransactionTemplate transactionTemplate;
+
+    private BlockingQueue<PendingAlert> pending;
+    private Thread publisher;
+    private volatile boolean running;
+
+    @Value("${monitoring.alert.outbox.capacity}")
+    private int CAPACITY;
+
+    @Value("${monitoring.alert.outbox.batch-size}")
+    private int BATCH_SIZE;
+
+    @Value("${monitoring.alert.outbox.sweep-after-ms}")
+    private long SWEEP_AFTER_MS;
+
+    @Autowired
+    public AlertOutbox(AlertOutboxRepository alertOutboxRepository, MessageProducer messageProducer,
+                       TransactionTemplate transactionTemplate) {
+        this.alertOutboxRepository = alertOutboxRepository;
+        this.messageProducer = messageProducer;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        pending = new ArrayBlockingQueue<>(CAPACITY);
+        running = true;
+        publisher = Thread.ofPlatform().name("alert-publisher").daemon(true).start(this::publishLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        publisher.interrupt();
+    }
+
+    /**
+     * Must be called inside the transaction that produced the alerts.
+     */
+    public void enqueue(List<DeviceAlertMessageType> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+
+        Map<Long, DeviceAlertMessageType> inserted = alertOutboxRepository.insertAll(alerts);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(inserted);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                offer(inserted);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${monitoring.alert.outbox.sweep-interval-ms}")
+    public void sweep() {
+        int swept;
+        do {
+            swept = sweepBatch();
+        } while (swept == BATCH_SIZE);
+    }
+
+    private int sweepBatch() {
+        try {
+            Integer swept = transactionTemplate.execute(status -> {
+                List<AlertOutboxEntry> stale = alertOutboxRepository.lockStale(SWEEP_AFTER_MS / 1000.0, BATCH_SIZE);
+                if (stale.isEmpty()) {
+                    return 0;
+                }
+                messageProducer.sendDeviceAlertsConfirmed(stale.stream().map(AlertOutboxEntry::toMessage).toList());
+                alertOutboxRepository.deleteAllByIdInBatch(stale.stream().map(AlertOutboxEntry::getId).toList());
+                return stale.size();
+            });
+            if (swept != null && swept > 0) {
+                LOGGER.info("Re-published {} alerts from the outbox", swept);
+            }
+            return swept != null ? swept : 0;
+        } catch (RuntimeException e) {
+            LOGGER.error("Sweeping the alert outbox failed, retrying on the next sweep", e);
+            return 0;
+        }
+    }
+
+    private void offer(Map<Long, DeviceAlertMessageType> alerts) {
+        alerts.forEach((id, alert) -> {
+            if (!pending.offer(new PendingAlert(id, alert))) {
+                LOGGER.warn("Alert queue is full, alert {} will be published by the outbox sweeper", id);
+            }
+        });
+    }
+
+    private void publishLoop() {
+        List<PendingAlert> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                PendingAlert first = pending.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, BATCH_SIZE - 1);
+                publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<PendingAlert> batch) {
+        Map<Long, DeviceAlertMessageType> alerts = new LinkedHashMap<>();
+        batch.forEach(alert -> alerts.put(alert.id(), alert.message()));
+        try {
+            messageProducer.sendDeviceAlertsConfirmed(alerts.values());
+        } catch (RuntimeException e) {
+            // The rows stay in the outbox, the sweeper retries them once they are old enough.
+            LOGGER.error("Publishing {} alerts was not confirmed, leaving them to the outbox sweeper", batch.size(), e);
+            return;
+        }
+
+        try {
+            alertOutboxRepository.deleteAllByIdInBatch(alerts.keySet());
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not delete {} published alerts from the outbox, they may be sent again", batch.size(), e);
+        }
+    }
+
+    private record PendingAlert(Long id, DeviceAlertMessageType message) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.anomaly.AnomalyRule;
+import com.example.monitoring.service.dtos.AnomalyStatsDTO;
+import com.example.monitoring.service.dtos.DeviceAnomalyDTO;
+import com.example.monitoring.service.entities.DeviceAnomaly;
+import com.example.monitoring.service.messaging.MeasurementMessageType;
+import com.example.monitoring.service.repositories.DeviceAnomalyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the configured anomaly rules over every measurement. Rule state is kept per ingest lane in one
+ * double[] with a fixed stride per device, and is only touched from the lane's thread, so evaluating a
+ * measurement takes no locks and allocates nothing once the device has a slot.
+ * Rules only see measurements that have been persisted, so a redelivered batch never advances their state twice;
+ * flagged measurements are stored in device_anomalies.
+ * Rule state is per replica, so every measurement of a device must reach the same replica: the load balancer has
+ * to route with consistent-hash at load factor 0 (or the sharded topology), and refuses any other strategy while
+ * loadbalancing.routing.require-device-affinity is set.
+ */
+@Service
+public class AnomalyEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnomalyEngine.class);
+    private static final int INITIAL_DEVICES_PER_LANE = 64;
+
+    private final AnomalyRule[] rules;
+    private final int[] ruleOffsets;
+    private final int stride;
+    private final IngestLanes ingestLanes;
+    private final DeviceAnomalyRepository deviceAnomalyRepository;
+    private final LaneState[] lanes;
+
+    private final LongAdder[] anomalies;
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private final LongAdder persistFailures = new LongAdder();
+
+    @Value("${monitoring.device-data.max-page-size}")
+    private int MAX_PAGE_SIZE;
+
+    @Autowired
+    public AnomalyEngine(@Qualifier("anomalyRules") List<AnomalyRule> rules, IngestLanes ingestLanes,
+                         DeviceAnomalyRepository deviceAnomalyRepository) {
+        this.rules = rules.toArray(AnomalyRule[]::new);
+        this.ruleOffsets = new int[this.rules.length];
+        int offset = 0;
+        for (int i = 0; i < this.rules.length; i++) {
+            ruleOffsets[i] = offset;
+            offset += this.rules[i].stateSize();
+        }
+        this.stride = offset;
+
+        this.anomalies = new LongAdder[this.rules.length];
+        Arrays.setAll(anomalies, i -> new LongAdder());
+
+        this.ingestLanes = ingestLanes;
+        this.deviceAnomalyRepository = deviceAnomalyRepository;
+        this.lanes = new LaneState[ingestLanes.laneCount()];
+        Arrays.setAll(lanes, i -> new LaneState(stride));
+        LOGGER.info("Anomaly rules: {}", Arrays.stream(this.rules).map(AnomalyRule::name).toList());
+    }
+
+    /**
+     * Queues the measurements on their devices' lanes. For measurements that were committed off the lanes, such
+     * as by a flush of the hourly accumulator.
+     */
+    public void evaluateCommitted(List<MeasurementMessageType> measurements) {
+        if (rules.length == 0 || measurements.isEmpty()) {
+            return;
+        }
+        ingestLanes.dispatch(measurements, MeasurementMessageType::getDeviceId, this::evaluate, (lane, error) -> {
+            if (error != null) {
+                LOGGER.error("Evaluating {} committed measurements failed", lane.size(), error);
+            }
+        });
+    }
+
+    /**
+     * Must be called from the ingest lane that owns the measurements' devices, once the measurements are persisted.
+     */
+    public void evaluate(List<MeasurementMessageType> measurements) {
+        if (rules.length == 0 || measurements.isEmpty()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        LaneState lane = lanes[ingestLanes.laneOf(measurements.getFirst().getDeviceId())];
+        lane.applyRemovals();
+
+        List<DeviceAnomaly> flagged = null;
+        for (MeasurementMessageType measurement : measurements) {
+            if (measurement.getDeviceId() == null || measurement.getValue() == null) {
+                continue;
+            }
+
+            int base = lane.slotOf(measurement.getDeviceId()) * stride;
+            int hourOfDay = hourOf(measurement.getTimestamp());
+            double value = measurement.getValue();
+            for (int i = 0; i < rules.length; i++) {
+                if (rules[i].evaluate(lane.state, base + ruleOffsets[i], value, hourOfDay)) {
+                    anomalies[i].increment();
+                    LOGGER.debug("Rule {} flagged measurement {}", rules[i].name(), measurement);
+                    if (flagged == null) {
+                        flagged = new ArrayList<>();
+                    }
+                    flagged.add(new DeviceAnomaly(measurement.getDeviceId(), rules[i].name(), measurement.getValue(),
+                            measurement.getTimestamp(), LocalDateTime.now()));
+                }
+            }
+        }
+
+        evaluated.add(measurements.size());
+        evaluationNanos.add(System.nanoTime() - started);
+        if (flagged != null) {
+            persist(flagged);
+        }
+    }
+
+    // The rule state has already moved on, so a failed write loses these anomalies rather than blocking the lane.
+    private void persist(List<DeviceAnomaly> flagged) {
+        try {
+            deviceAnomalyRepository.saveAll(flagged);
+        } catch (DataAccessException e) {
+            persistFailures.add(flagged.size());
+            LOGGER.error("Could not store {} anomalies", flagged.size(), e);
+        }
+    }
+
+    public void forget(UUID deviceId) {
+        lanes[ingestLanes.laneOf(deviceId)].removals.add(deviceId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DeviceAnomalyDTO> findRecent(UUID deviceId, int size) {
+        return deviceAnomalyRepository.findByDeviceIdOrderByIdDesc(deviceId, Limit.of(Math.clamp(size, 1, MAX_PAGE_SIZE)))
+                .stream()
+                .map(anomaly -> new DeviceAnomalyDTO(anomaly.getDeviceId(), anomaly.getRule(), anomaly.getValue(),
+                        anomaly.getTimestamp(), anomaly.getDetectedAt()))
+                .toList();
+    }
+
+    public AnomalyStatsDTO getStats() {
+        Map<String, Long> anomaliesByRule = new LinkedHashMap<>();
+        for (int i = 0; i < rules.length; i++) {
+            anomaliesByRule.put(rules[i].name(), anomalies[i].sum());
+        }
+        long count = evaluated.sum();
+        return new AnomalyStatsDTO(anomaliesByRule, count, count == 0 ? 0 : (double) evaluationNanos.sum() / count,
+                persistFailures.sum());
+    }
+
+    // Reads the hour straight from an ISO timestamp such as 2025-01-31T14:05:00 without parsing it.
+    private static int hourOf(String timestamp) {
+        if (timestamp == null || timestamp.length() < 13 || timestamp.charAt(10) != 'T') {
+            return -1;
+        }
+        int tens = timestamp.charAt(11) - '0';
+        int units = timestamp.charAt(12) - '0';
+        if (tens < 0 || tens > 2 || units < 0 || units > 9) {
+            return -1;
+        }
+        return tens * 10 + units;
+    }
+
+    private static class LaneState {
+        private final int stride;
+        private final Map<UUID, Integer> slots = new HashMap<>();
+        private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+        private final Queue<UUID> removals = new ConcurrentLinkedQueue<>();
+        private double[] state;
+
+        private LaneState(int stride) {
+            this.stride = stride;
+            this.state = new double[stride * INITIAL_DEVICES_PER_LANE];
+        }
+
+        private int slotOf(UUID deviceId) {
+            Integer slot = slots.get(deviceId);
+            if (slot != null) {
+                return slot;
+            }
+
+            slot = freeSlots.isEmpty() ? slots.size() : freeSlots.poll();
+            if ((slot + 1) * stride > state.length) {
+                state = Arrays.copyOf(state, state.length * 2);
+            }
+            slots.put(deviceId, slot);
+            return slot;
+        }
+
+        private void applyRemovals() {
+            UUID deviceId;
+            while ((deviceId = removals.poll()) != null) {
+                Integer slot = slots.remove(deviceId);
+                if (slot != null) {
+                    Arrays.fill(state, slot * stride, (slot + 1) * stride, 0);
+                    freeSlots.push(slot);
+                }
+            }
+        }
+    }
+}
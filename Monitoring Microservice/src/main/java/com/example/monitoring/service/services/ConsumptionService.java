@@ -0,0 +1,69 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.common.ConsumptionPeriod;
+import com.example.monitoring.service.dtos.ConsumptionPointDTO;
+import com.example.monitoring.service.repositories.ConsumptionRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+@Service
+public class ConsumptionService {
+    private final ConsumptionRollupRepository rollupRepository;
+
+    @Autowired
+    public ConsumptionService(ConsumptionRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Consumption curve of the period containing the date: hours of a day, days of a week or month, months of a year.
+     */
+    @Transactional(readOnly = true)
+    public List<ConsumptionPointDTO> getConsumption(List<UUID> deviceIds, ConsumptionPeriod period, LocalDate date) {
+        List<UUID> ids = deviceIds != null ? deviceIds : List.of();
+        return switch (period) {
+            case DAY -> {
+                LocalDateTime start = date.atStartOfDay();
+                yield curve(start, 24, point -> point.plusHours(1),
+                        rollupRepository.sumHourly(ids, start, start.plusDays(1)));
+            }
+            case WEEK -> {
+                LocalDate start = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                yield curve(start.atStartOfDay(), 7, point -> point.plusDays(1),
+                        rollupRepository.sumDaily(ids, start, start.plusWeeks(1)));
+            }
+            case MONTH -> {
+                LocalDate start = date.withDayOfMonth(1);
+                yield curve(start.atStartOfDay(), date.lengthOfMonth(), point -> point.plusDays(1),
+                        rollupRepository.sumDaily(ids, start, start.plusMonths(1)));
+            }
+            case YEAR -> {
+                LocalDate start = date.withDayOfYear(1);
+                yield curve(start.atStartOfDay(), 12, point -> point.plusMonths(1),
+                        rollupRepository.sumMonthly(ids, start, start.plusYears(1)));
+            }
+        };
+    }
+
+    private List<ConsumptionPointDTO> curve(LocalDateTime start, int points, UnaryOperator<LocalDateTime> next,
+                                            Map<LocalDateTime, Long> totals) {
+        List<ConsumptionPointDTO> curve = new ArrayList<>(points);
+        LocalDateTime point = start;
+        for (int i = 0; i < points; i++) {
+            curve.add(new ConsumptionPointDTO(point, totals.getOrDefault(point, 0L)));
+            point = next.apply(point);
+        }
+        return curve;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.dtos.DeviceCacheStatsDTO;
+import com.example.monitoring.service.entities.Device;
+import com.example.monitoring.service.repositories.DeviceRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded read-through LRU cache of device id to maximum consumption value, kept per replica. Every replica gets
+ * the device INSERT/UPDATE/DELETE events through its own queue on the device events exchange and reloads after a
+ * resync, so the ingest path does not query the devices table. Entries older than the TTL are read again, which
+ * bounds how long a lost event can leave a stale value behind.
+ */
+@Service
+public class DeviceCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceCache.class);
+
+    private final DeviceRepository deviceRepository;
+    // Access ordered, so the eldest entry is the least recently used one. Guarded by itself.
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+            if (size() <= MAX_SIZE) {
+                return false;
+            }
+            evictions.increment();
+            return true;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Bumped by every explicit evict, so a read-through load that raced with a DELETE is not kept
+    private long invalidations;
+
+    @Value("${monitoring.device-cache.max-size}")
+    private int MAX_SIZE;
+
+    @Value("${monitoring.device-cache.ttl-seconds}")
+    private long TTL_SECONDS;
+
+    @Autowired
+    public DeviceCache(DeviceRepository deviceRepository) {
+        this.deviceRepository = deviceRepository;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            deviceRepository.findAll(PageRequest.of(0, MAX_SIZE))
+                    .forEach(device -> entries.put(device.getId(), new Entry(device.getMaximumConsumptionValue(), now)));
+            LOGGER.info("Device cache warmed up with {} devices", entries.size());
+        }
+    }
+
+    /**
+     * Drops every entry and loads the cache again, after a resync may have changed devices without events.
+     */
+    public void reload() {
+        synchronized (entries) {
+            invalidations++;
+            entries.clear();
+        }
+        warmUp();
+    }
+
+    public Optional<Integer> getMaximumConsumptionValue(UUID deviceId) {
+        long invalidation;
+        synchronized (entries) {
+            Entry cached = entries.get(deviceId);
+            if (cached != null && !expired(cached, System.nanoTime())) {
+                hits.increment();
+                return Optional.of(cached.value());
+            }
+            invalidation = invalidations;
+        }
+
+        misses.increment();
+        Optional<Integer> loaded = deviceRepository.findById(deviceId).map(Device::getMaximumConsumptionValue);
+        loaded.ifPresent(value -> putLoaded(deviceId, value, invalidation));
+        return loaded;
+    }
+
+    public void put(UUID deviceId, Integer maximumConsumptionValue) {
+        synchronized (entries) {
+            entries.put(deviceId, new Entry(maximumConsumptionValue, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Updates the value of a device only if it is cached, so that a resync does not fill the cache.
+     */
+    public void refresh(UUID deviceId, Integer maximumConsumptionValue) {
+        synchronized (entries) {
+            entries.replace(deviceId, new Entry(maximumConsumptionValue, System.nanoTime()));
+        }
+    }
+
+    public void evict(UUID deviceId) {
+        synchronized (entries) {
+            invalidations++;
+            entries.remove(deviceId);
+        }
+    }
+
+    public DeviceCacheStatsDTO getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new DeviceCacheStatsDTO(size, MAX_SIZE, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * Keeps a loaded value unless an event has put a fresh one, or an evict ran since the load started.
+     */
+    private void putLoaded(UUID deviceId, Integer maximumConsumptionValue, long invalidation) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            if (invalidations != invalidation) {
+                return;
+            }
+            Entry current = entries.get(deviceId);
+            if (current == null || expired(current, now)) {
+                entries.put(deviceId, new Entry(maximumConsumptionValue, now));
+            }
+        }
+    }
+
+    private boolean expired(Entry entry, long now) {
+        return TTL_SECONDS > 0 && now - entry.loadedAtNanos() > TimeUnit.SECONDS.toNanos(TTL_SECONDS);
+    }
+
+    private record Entry(Integer value, long loadedAtNanos) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.monitoring.service.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the monthly partitions of device_data ahead of time and on demand, and drops the ones that
+ * fell out of the retention window. DDL runs in its own transaction under an advisory lock shared by
+ * all replicas.
+ */
+@Service
+public class DeviceDataPartitionManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceDataPartitionManager.class);
+
+    private static final long SCHEMA_LOCK_ID = 0x6d6f6e69746f72L;
+    private static final String PARTITION_PREFIX = "device_data_";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ddlTransaction;
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+
+    @Value("${monitoring.device-data.precreate-months}")
+    private int PRECREATE_MONTHS;
+
+    @Value("${monitoring.device-data.retention-months}")
+    private int RETENTION_MONTHS;
+
+    @Autowired
+    public DeviceDataPartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ddlTransaction = new TransactionTemplate(transactionManager);
+        this.ddlTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void lockSchema() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + SCHEMA_LOCK_ID + ")");
+    }
+
+    public void loadExisting() {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass('device_data')
+                """, String.class);
+
+        partitions.clear();
+        for (String name : names) {
+            try {
+                partitions.add(YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX));
+            } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+                LOGGER.warn("Ignoring unexpected device_data partition {}", name);
+            }
+        }
+        LOGGER.info("Found {} device_data partitions", partitions.size());
+    }
+
+    public void ensurePartitions(Collection<LocalDateTime> bucketStarts) {
+        Set<YearMonth> missing = new TreeSet<>();
+        for (LocalDateTime bucketStart : bucketStarts) {
+            YearMonth month = YearMonth.from(bucketStart);
+            if (!partitions.contains(month)) {
+                missing.add(month);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        ddlTransaction.executeWithoutResult(status -> {
+            lockSchema();
+            missing.forEach(this::createPartition);
+        });
+        partitions.addAll(missing);
+    }
+
+    /**
+     * Must run inside a transaction that holds the schema lock.
+     */
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) +
+                " PARTITION OF device_data FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        LOGGER.info("Ensured device_data partition for {}", month);
+    }
+
+    @Scheduled(cron = "${monitoring.device-data.partition-maintenance-cron}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        Set<YearMonth> upcoming = new TreeSet<>();
+        for (int i = 0; i <= PRECREATE_MONTHS; i++) {
+            upcoming.add(current.plusMonths(i));
+        }
+        ensurePartitions(upcoming.stream().map(month -> month.atDay(1).atStartOfDay()).toList());
+
+        if (RETENTION_MONTHS <= 0) {
+            return;
+        }
+
+        YearMonth oldestKept = current.minusMonths(RETENTION_MONTHS - 1L);
+        List<YearMonth> expired = partitions.stream().filter(month -> month.isBefore(oldestKept)).sorted().toList();
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        ddlTransaction.executeWithoutResult(status -> {
+            lockSchema();
+            expired.forEach(month -> jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month)));
+        });
+        expired.forEach(partitions::remove);
+        LOGGER.info("Dropped device_data partitions {} outside the {} month retention", expired, RETENTION_MONTHS);
+    }
+
+    private String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
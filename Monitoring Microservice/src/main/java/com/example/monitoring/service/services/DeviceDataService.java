@@ -1,113 +1,147 @@
 package com.example.monitoring.service.services;
 
 import com.example.monitoring.service.dtos.DeviceDataDTO;
+import com.example.monitoring.service.dtos.DeviceDataPageDTO;
+import com.example.monitoring.service.dtos.HourlyBucket;
 import com.example.monitoring.service.dtos.HourlyConsumptionDTO;
 import com.example.monitoring.service.dtos.builders.DeviceDataBuilder;
 import com.example.monitoring.service.entities.Device;
 import com.example.monitoring.service.entities.DeviceData;
 import com.example.monitoring.service.messaging.DeviceAlertMessageType;
-import com.example.monitoring.service.messaging.MessageProducer;
+import com.example.monitoring.service.messaging.MeasurementMessageType;
+import com.example.monitoring.service.repositories.ConsumptionRollupRepository;
 import com.example.monitoring.service.repositories.DeviceDataRepository;
 import com.example.monitoring.service.repositories.DeviceRepository;
-import com.zaxxer.hikari.util.Credentials;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public class DeviceDataService {
-    private static final Logger LOGGER = LoggerFactory.getLogger(Credentials.class);
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceDataService.class);
+    private static final LocalDateTime EARLIEST = LocalDate.EPOCH.atStartOfDay();
+    private static final LocalDateTime LATEST = LocalDate.of(9999, 12, 31).atStartOfDay();
     private final DeviceRepository deviceRepository;
     private final DeviceDataRepository deviceDataRepository;
-    private final MessageProducer messageProducer;
-
-    @Value("${simulator.delay.ms}")
-    private long SIMULATOR_DELAY_MS;
-
-    public DeviceDataService(DeviceRepository deviceRepository, DeviceDataRepository deviceDataRepository, MessageProducer messageProducer) {
+    private final AlertOutbox alertOutbox;
+    private final DeviceCache deviceCache;
+    private final DeviceDataPartitionManager partitionManager;
+    private final ConsumptionRollupRepository rollupRepository;
+    private final AlertEngine alertEngine;
+
+    @Value("${monitoring.device-data.max-page-size}")
+    private int MAX_PAGE_SIZE;
+
+    public DeviceDataService(DeviceRepository deviceRepository, DeviceDataRepository deviceDataRepository, AlertOutbox alertOutbox,
+                             DeviceCache deviceCache, DeviceDataPartitionManager partitionManager,
+                             ConsumptionRollupRepository rollupRepository, AlertEngine alertEngine) {
         this.deviceRepository = deviceRepository;
         this.deviceDataRepository = deviceDataRepository;
-        this.messageProducer = messageProducer;
+        this.alertOutbox = alertOutbox;
+        this.deviceCache = deviceCache;
+        this.partitionManager = partitionManager;
+        this.rollupRepository = rollupRepository;
+        this.alertEngine = alertEngine;
     }
 
     @Transactional
-    public UUID insert(UUID deviceId, DeviceDataDTO deviceDataDTO) {
-        DeviceData deviceData = DeviceDataBuilder.toEntity(deviceDataDTO);
-        deviceData.setDevice(deviceRepository.findById(deviceId).orElseThrow());
-        return deviceDataRepository.save(deviceData).getId();
+    public Integer insert(UUID deviceId, DeviceDataDTO deviceDataDTO) {
+        Device device = deviceRepository.findById(deviceId).orElseThrow();
+        HourlyBucket bucket = HourlyBucket.of(device.getId(), deviceDataDTO.getDate().atTime(deviceDataDTO.getTime()));
+        partitionManager.ensurePartitions(List.of(bucket.start()));
+        rollupRepository.addIncrements(Map.of(bucket, deviceDataDTO.getValue()));
+        return deviceDataRepository.addToHourlyValue(bucket, deviceDataDTO.getValue());
     }
 
     @Transactional
-    public UUID insert(UUID deviceId, String timestamp, Integer value) {
-        if (SIMULATOR_DELAY_MS > 0) {
-            try {
-                LOGGER.info("Processing with delay: {} ms", SIMULATOR_DELAY_MS);
-                Thread.sleep(SIMULATOR_DELAY_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+    public void insertBatch(List<MeasurementMessageType> measurements) {
+        Map<HourlyBucket, Integer> increments = new HashMap<>();
+        Map<HourlyBucket, String> lastTimestamps = new HashMap<>();
+
+        for (MeasurementMessageType measurement : measurements) {
+            toHourlyBucket(measurement).ifPresent(bucket -> {
+                increments.merge(bucket, measurement.getValue(), Integer::sum);
+                lastTimestamps.put(bucket, measurement.getTimestamp());
+            });
         }
 
-        LOGGER.debug("Inserting data for device {} at {}", deviceId, timestamp);
-        LocalDateTime dateTime = LocalDateTime.parse(timestamp);
-        LocalDate date = dateTime.toLocalDate();
-        LocalTime time = LocalTime.of(dateTime.getHour(), 0);
-
-        Device device = deviceRepository.findById(deviceId)
-                .orElseThrow(() -> new RuntimeException("Device with id: " + deviceId + " was not found in db"));
-
-        LOGGER.debug("Device {} found in db", device.getId());
+        applyHourlyIncrements(increments, lastTimestamps);
+    }
 
-        // Query the database directly instead of loading all data
-        Optional<DeviceData> existingData = deviceDataRepository
-                .findByDeviceAndDateAndTime(device, date, time);
+    @Transactional
+    public void applyHourlyIncrements(Map<HourlyBucket, Integer> increments, Map<HourlyBucket, String> lastTimestamps) {
+        Map<UUID, Integer> maximumConsumptionValues = new HashMap<>();
+        for (HourlyBucket bucket : increments.keySet()) {
+            if (!maximumConsumptionValues.containsKey(bucket.deviceId())) {
+                deviceCache.getMaximumConsumptionValue(bucket.deviceId())
+                        .ifPresent(value -> maximumConsumptionValues.put(bucket.deviceId(), value));
+            }
+        }
 
-        LOGGER.debug("Existing data for device {} at {}T{}: {}", device.getId(), date, time, existingData);
+        increments.keySet().removeIf(bucket -> {
+            if (maximumConsumptionValues.containsKey(bucket.deviceId())) {
+                return false;
+            }
+            LOGGER.warn("Device with id {} was not found in db, dropping its measurements", bucket.deviceId());
+            return true;
+        });
+
+        LOGGER.debug("Applying {} hourly increments", increments.size());
+        partitionManager.ensurePartitions(increments.keySet().stream().map(HourlyBucket::start).toList());
+        Map<HourlyBucket, Integer> totals = deviceDataRepository.addToHourlyValues(increments);
+        rollupRepository.addIncrements(increments);
+
+        // Oldest hour first, so the alert engine sees each device's totals in measurement order.
+        List<DeviceAlertMessageType> alerts = new ArrayList<>();
+        totals.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(HourlyBucket::start)))
+                .forEach(entry -> evaluateAlert(entry.getKey(), entry.getValue(),
+                        maximumConsumptionValues.get(entry.getKey().deviceId()), lastTimestamps.get(entry.getKey()))
+                        .ifPresent(alerts::add));
+        alertOutbox.enqueue(alerts);
+    }
 
-        DeviceData deviceData;
-        if (existingData.isPresent()) {
-            deviceData = existingData.get();
-            deviceData.setValue(deviceData.getValue() + value);
+    private Optional<DeviceAlertMessageType> evaluateAlert(HourlyBucket bucket, int total, int maximum, String timestamp) {
+        LocalDateTime measuredAt = timestamp != null ? LocalDateTime.parse(timestamp) : bucket.start();
+        return alertEngine.evaluate(bucket.deviceId(), total, maximum, measuredAt)
+                .map(type -> new DeviceAlertMessageType(bucket.deviceId(), total, timestamp, type));
+    }
 
-            LOGGER.debug("Updated data for device {} at {}T{}: {}", device.getId(), date, time, deviceData);
-        } else {
-            deviceData = new DeviceData(date, time, value, device);
+    public Optional<HourlyBucket> toHourlyBucket(MeasurementMessageType measurement) {
+        if (measurement.getDeviceId() == null || measurement.getValue() == null || measurement.getTimestamp() == null) {
+            LOGGER.warn("Skipping incomplete measurement {}", measurement);
+            return Optional.empty();
         }
 
-        UUID id = deviceDataRepository.save(deviceData).getId();
-
         try {
-            if (deviceData.getValue() > device.getMaximumConsumptionValue()) {
-                DeviceAlertMessageType alertMessage = new DeviceAlertMessageType(deviceId, deviceData.getValue(), timestamp);
-                messageProducer.sendDeviceAlert(alertMessage);
-            }
-        } catch (Exception e) {
-            LOGGER.error("Error while sending message", e);
+            return Optional.of(HourlyBucket.of(measurement.getDeviceId(), LocalDateTime.parse(measurement.getTimestamp())));
+        } catch (DateTimeParseException e) {
+            LOGGER.warn("Skipping measurement with invalid timestamp {}", measurement);
+            return Optional.empty();
         }
-
-        return id;
     }
 
     @Transactional(readOnly = true)
     public List<DeviceDataDTO> findByDevice(UUID deviceId) {
-        Optional<Device> device = deviceRepository.findById(deviceId);
-
-        if (device.isEmpty()) {
-            LOGGER.error("Device with id {} was not found in db", deviceId);
-            throw new RuntimeException("Device with id: " + deviceId + " was not found in db");
-        }
+        assertDeviceExists(deviceId);
 
-        List<DeviceData> deviceDataList = deviceDataRepository.findByDevice(device.get());
+        List<DeviceData> deviceDataList = deviceDataRepository.findByDeviceIdOrderByBucketStart(deviceId);
 
         return deviceDataList.stream()
                 .map(DeviceDataBuilder::toDeviceDataDTO)
@@ -116,17 +150,46 @@ public class DeviceDataService {
 
     @Transactional(readOnly = true)
     public List<DeviceDataDTO> findByDeviceAndDate(UUID deviceId, LocalDate date) {
-        Optional<Device> device = deviceRepository.findById(deviceId);
+        assertDeviceExists(deviceId);
 
-        if (device.isEmpty()) {
+        List<DeviceData> deviceDataList = deviceDataRepository.findByDeviceIdInRange(
+                deviceId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        return deviceDataList.stream()
+                .map(DeviceDataBuilder::toDeviceDataDTO)
+                .toList();
+    }
+
+    public void assertDeviceExists(UUID deviceId) {
+        if (!deviceRepository.existsById(deviceId)) {
             LOGGER.error("Device with id {} was not found in db", deviceId);
             throw new RuntimeException("Device with id: " + deviceId + " was not found in db");
         }
+    }
 
-        List<DeviceData> deviceDataList = deviceDataRepository.findByDeviceAndDate(device.get(), date);
-        return deviceDataList.stream()
-                .map(DeviceDataBuilder::toDeviceDataDTO)
-                .toList();
+    @Transactional(readOnly = true)
+    public DeviceDataPageDTO findPageByDevice(UUID deviceId, LocalDateTime from, LocalDateTime to, int size) {
+        assertDeviceExists(deviceId);
+        return fetchPage(deviceId, from != null ? from : EARLIEST, to != null ? to : LATEST, Math.clamp(size, 1, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Hands the rows in [from, to) to the consumer one keyset page at a time, so only a single page is ever held in memory.
+     */
+    public void streamByDevice(UUID deviceId, LocalDateTime from, LocalDateTime to, Consumer<DeviceDataDTO> consumer) {
+        LocalDateTime cursor = from != null ? from : EARLIEST;
+        LocalDateTime end = to != null ? to : LATEST;
+        while (cursor != null) {
+            DeviceDataPageDTO page = fetchPage(deviceId, cursor, end, MAX_PAGE_SIZE);
+            page.getItems().forEach(consumer);
+            cursor = page.getNextFrom();
+        }
+    }
+
+    private DeviceDataPageDTO fetchPage(UUID deviceId, LocalDateTime from, LocalDateTime to, int size) {
+        List<DeviceData> rows = deviceDataRepository.findPageByDeviceId(deviceId, from, to, Limit.of(size));
+        // Buckets are whole hours, so the next page starts one hour after the last row.
+        LocalDateTime nextFrom = rows.size() == size ? rows.getLast().getBucketStart().plusHours(1) : null;
+        return new DeviceDataPageDTO(rows.stream().map(DeviceDataBuilder::toDeviceDataDTO).toList(), nextFrom);
     }
 
     @Transactional(readOnly = true)
@@ -137,15 +200,9 @@ public class DeviceDataService {
             return consumption;
         }
 
-        List<DeviceData> allData = deviceDataRepository.findByDeviceIdInAndDate(deviceIds, date);
-
-        for (DeviceData deviceData : allData) {
-            int hour = deviceData.getTime().getHour();
-            if (hour >= 0 && hour < 24) {
-                consumption.get(hour).setValue(
-                        consumption.get(hour).getValue() + deviceData.getValue()
-                );
-            }
+        long[] totals = deviceDataRepository.sumHourlyValues(deviceIds, date);
+        for (int hour = 0; hour < totals.length; hour++) {
+            consumption.get(hour).setValue(totals[hour]);
         }
 
         return consumption;
@@ -154,7 +211,7 @@ public class DeviceDataService {
     private List<HourlyConsumptionDTO> initializeEmptyHours() {
         List<HourlyConsumptionDTO> consumption = new ArrayList<>();
         for (int hour = 0; hour < 24; hour++) {
-            consumption.add(new HourlyConsumptionDTO(LocalTime.of(hour, 0), 0));
+            consumption.add(new HourlyConsumptionDTO(LocalTime.of(hour, 0), 0L));
         }
         return consumption;
     }
@@ -0,0 +1,163 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.dtos.DeviceSnapshotDTO;
+import com.example.monitoring.service.dtos.DeviceSnapshotPageDTO;
+import com.example.monitoring.service.messaging.DeviceIdMessageType;
+import com.example.monitoring.service.messaging.MessageProducer;
+import com.example.monitoring.service.messaging.OperationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Rebuilds the devices table from the Device Management snapshot at startup, so that a replica that missed
+ * device events, or starts on an empty database, does not depend on their replay. Rows are written only when
+ * the snapshot has a newer version. Local devices missing from a complete snapshot are deleted with their history,
+ * unless an event has written them since the resync started. Replicas share the database, so only the one holding
+ * the advisory lock runs the resync; it then tells every replica to reload its device cache.
+ */
+@Service
+public class DeviceResync {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceResync.class);
+
+    private static final long RESYNC_LOCK_ID = 0x6465766963657321L;
+
+    private final DeviceService deviceService;
+    private final DeviceCache deviceCache;
+    private final MessageProducer messageProducer;
+    private final JdbcTemplate jdbcTemplate;
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @Value("${device.service.host}")
+    private String DEVICE_SERVICE_HOST;
+
+    @Value("${monitoring.device-resync.enabled}")
+    private boolean ENABLED;
+
+    @Value("${monitoring.device-resync.page-size}")
+    private int PAGE_SIZE;
+
+    @Autowired
+    public DeviceResync(DeviceService deviceService, DeviceCache deviceCache, MessageProducer messageProducer,
+                        JdbcTemplate jdbcTemplate) {
+        this.deviceService = deviceService;
+        this.deviceCache = deviceCache;
+        this.messageProducer = messageProducer;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resync() {
+        if (!ENABLED) {
+            return;
+        }
+
+        try {
+            Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) this::runLocked);
+            if (!Boolean.TRUE.equals(ran)) {
+                // This cache was warmed up while another replica was still rewriting the table.
+                LOGGER.info("Device resync ran on another replica, reloading the device cache");
+                deviceCache.reload();
+            }
+        } catch (RestClientException | DataAccessException | IllegalStateException e) {
+            // Device events keep the table current, the next startup tries again.
+            LOGGER.warn("Device resync failed, continuing with the local devices", e);
+        }
+    }
+
+    /**
+     * Holds a session-level advisory lock on the callback's connection for the whole resync. The upserts use
+     * their own connections, so each page commits on its own. When another replica holds the lock, waits until
+     * it is released and returns false.
+     */
+    private boolean runLocked(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_try_advisory_lock(" + RESYNC_LOCK_ID + ")")) {
+            if (!resultSet.next() || !resultSet.getBoolean(1)) {
+                statement.execute("SELECT pg_advisory_lock(" + RESYNC_LOCK_ID + ")");
+                statement.execute("SELECT pg_advisory_unlock(" + RESYNC_LOCK_ID + ")");
+                return false;
+            }
+        }
+
+        try {
+            run();
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_unlock(" + RESYNC_LOCK_ID + ")");
+            }
+        }
+        return true;
+    }
+
+    private void run() {
+        // Read before the snapshot: Device Management publishes events after commit, so every device that was
+        // stored here by then is in the snapshot unless it has been deleted.
+        Map<UUID, Long> missing = new HashMap<>(deviceService.findAllVersions());
+        int received = 0;
+        int written = 0;
+
+        UUID after = null;
+        do {
+            DeviceSnapshotPageDTO page = fetchPage(after);
+            List<DeviceSnapshotDTO> items = page.getItems() != null ? page.getItems() : List.of();
+            items.forEach(device -> missing.remove(device.getId()));
+
+            for (DeviceSnapshotDTO device : deviceService.upsertAll(items)) {
+                deviceCache.refresh(device.getId(), device.getMaximumConsumptionValue());
+                written++;
+            }
+            received += items.size();
+            after = page.getNextAfter();
+        } while (after != null);
+
+        List<UUID> deleted = deviceService.deleteAllNotNewer(missing);
+        LOGGER.info("Device resync received {} devices, wrote {} and deleted {}", received, written, deleted.size());
+
+        deleted.forEach(id -> broadcast(new DeviceIdMessageType(OperationType.DELETE, id, null, missing.get(id))));
+        broadcast(new DeviceIdMessageType(OperationType.RESYNC, null, null, null));
+    }
+
+    // Replicas that miss this reload their entries once the cache TTL expires.
+    private void broadcast(DeviceIdMessageType message) {
+        try {
+            messageProducer.sendDeviceEvent(message);
+        } catch (AmqpException e) {
+            LOGGER.error("Could not send {} to the other replicas", message, e);
+        }
+    }
+
+    private DeviceSnapshotPageDTO fetchPage(UUID after) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(DEVICE_SERVICE_HOST + "/internal/devices/snapshot")
+                .queryParam("size", PAGE_SIZE);
+        if (after != null) {
+            uri.queryParam("after", after);
+        }
+
+        DeviceSnapshotPageDTO page = restTemplate.getForObject(uri.build().toUri(), DeviceSnapshotPageDTO.class);
+        if (page == null) {
+            throw new IllegalStateException("Empty device snapshot page after " + after);
+        }
+        return page;
+    }
+}
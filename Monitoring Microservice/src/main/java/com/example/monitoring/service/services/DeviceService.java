@@ -1,6 +1,7 @@
 package com.example.monitoring.service.services;
 
 import com.example.monitoring.service.dtos.DeviceDTO;
+import com.example.monitoring.service.dtos.DeviceSnapshotDTO;
 import com.example.monitoring.service.dtos.builders.DeviceBuilder;
 import com.example.monitoring.service.entities.Device;
 import com.example.monitoring.service.repositories.DeviceRepository;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -42,12 +44,45 @@ public class DeviceService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public Map<UUID, Long> findAllVersions() {
+        return deviceRepository.findAllVersions();
+    }
+
+    /**
+     * Inserts or updates the device, unless the stored version is already the same or newer.
+     *
+     * @return whether the device was written
+     */
     @Transactional
-    public UUID insert(DeviceDTO deviceDTO) {
-        Device device = DeviceBuilder.toEntity(deviceDTO);
-        device = deviceRepository.save(device);
-        LOGGER.info("Device with id {} was inserted in the database", device.getId());
-        return device.getId();
+    public boolean upsert(DeviceDTO deviceDTO, long version) {
+        boolean written = deviceRepository.upsertIfNewer(deviceDTO.getId(), deviceDTO.getMaximumConsumptionValue(), version);
+        if (written) {
+            LOGGER.info("Device with id {} was written in the database at version {}", deviceDTO.getId(), version);
+        } else {
+            LOGGER.debug("Device with id {} already has version {} or newer", deviceDTO.getId(), version);
+        }
+        return written;
+    }
+
+    @Transactional
+    public List<DeviceSnapshotDTO> upsertAll(List<DeviceSnapshotDTO> devices) {
+        return deviceRepository.upsertAllIfNewer(devices);
+    }
+
+    /**
+     * Deletes the devices unless an event has written a newer version since the versions were read. Their
+     * consumption history goes with them.
+     *
+     * @return the ids that were deleted
+     */
+    @Transactional
+    public List<UUID> deleteAllNotNewer(Map<UUID, Long> versions) {
+        List<UUID> deleted = deviceRepository.deleteAllNotNewer(versions);
+        if (!deleted.isEmpty()) {
+            LOGGER.info("{} devices were deleted from the database", deleted.size());
+        }
+        return deleted;
     }
 
     @Transactional
@@ -0,0 +1,241 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.dtos.HourlyBucket;
+import com.example.monitoring.service.messaging.MeasurementMessageType;
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sums measurements per (device, hour) in memory and writes them behind in one statement per flush.
+ * Deliveries stay unacknowledged until the flush that contains them has committed, so a crash only
+ * causes the broker to redeliver them. The anomaly rules see the measurements of a flush once it has committed.
+ * A flush that keeps failing is retried a bounded number of times, then applied bucket by bucket and the buckets
+ * that still fail are logged and dropped, so one bad row cannot hold back every delivery behind it.
+ * <p>
+ * Measurements of a device arrive in timestamp order on one lane, so a measurement at or before the newest
+ * committed timestamp of its device is a redelivery of a batch whose ack was lost, and is skipped. The high-water
+ * marks are kept in memory only: deliveries redelivered after a restart are counted again.
+ */
+@Service
+public class HourlyAccumulator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HourlyAccumulator.class);
+
+    private final DeviceDataService deviceDataService;
+    private final AnomalyEngine anomalyEngine;
+
+    // Adders share the read lock, the flusher takes the write lock only to swap the buffers out.
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Map<Channel, ChannelBuffer> buffers = new ConcurrentHashMap<>();
+    // Newest committed measurement timestamp per device
+    private final Map<UUID, LocalDateTime> committedUpTo = new ConcurrentHashMap<>();
+    // Only touched by the flusher
+    private int failedFlushes;
+
+    @Value("${monitoring.accumulator.enabled}")
+    private boolean ENABLED;
+
+    @Value("${monitoring.accumulator.max-flush-attempts}")
+    private int MAX_FLUSH_ATTEMPTS;
+
+    @Autowired
+    public HourlyAccumulator(DeviceDataService deviceDataService, AnomalyEngine anomalyEngine) {
+        this.deviceDataService = deviceDataService;
+        this.anomalyEngine = anomalyEngine;
+    }
+
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public void add(List<MeasurementMessageType> measurements, Channel channel) {
+        swapLock.readLock().lock();
+        try {
+            ChannelBuffer buffer = buffers.computeIfAbsent(channel, c -> new ChannelBuffer());
+            for (MeasurementMessageType measurement : measurements) {
+                deviceDataService.toHourlyBucket(measurement)
+                        .filter(bucket -> !alreadyCommitted(measurement))
+                        .ifPresent(bucket -> {
+                            buffer.add(bucket, measurement.getValue(), measurement.getTimestamp());
+                            buffer.measurements.add(measurement);
+                        });
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called only after all measurements up to the delivery tag were added, so that the ack can never
+     * land in an earlier flush than the values it covers.
+     */
+    public void acknowledgeOnFlush(Channel channel, long lastDeliveryTag) {
+        swapLock.readLock().lock();
+        try {
+            buffers.computeIfAbsent(channel, c -> new ChannelBuffer())
+                    .lastDeliveryTag.accumulateAndGet(lastDeliveryTag, Math::max);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void forget(UUID deviceId) {
+        committedUpTo.remove(deviceId);
+    }
+
+    @Scheduled(fixedDelayString = "${monitoring.accumulator.flush-interval-ms}")
+    public void flush() {
+        Map<Channel, ChannelBuffer> snapshot;
+        swapLock.writeLock().lock();
+        try {
+            if (buffers.isEmpty()) {
+                return;
+            }
+            snapshot = buffers;
+            buffers = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        Map<HourlyBucket, Integer> increments = new HashMap<>();
+        Map<HourlyBucket, String> lastTimestamps = new HashMap<>();
+        Map<Channel, Long> deliveryTags = new HashMap<>();
+        List<MeasurementMessageType> committed = new ArrayList<>();
+
+        snapshot.entrySet().removeIf(entry -> {
+            if (entry.getKey().isOpen()) {
+                return false;
+            }
+            // The broker requeues everything that was unacked on a closed channel.
+            LOGGER.warn("Channel closed before flush, dropping {} buffered buckets to be redelivered", entry.getValue().values.size());
+            return true;
+        });
+
+        snapshot.forEach((channel, buffer) -> {
+            buffer.values.forEach((bucket, value) -> increments.merge(bucket, value.get(), Integer::sum));
+            lastTimestamps.putAll(buffer.lastTimestamps);
+            committed.addAll(buffer.measurements);
+            // A tag of 0 would ack everything outstanding on the channel.
+            if (buffer.lastDeliveryTag.get() > 0) {
+                deliveryTags.put(channel, buffer.lastDeliveryTag.get());
+            }
+        });
+
+        Set<HourlyBucket> dropped = Set.of();
+        try {
+            deviceDataService.applyHourlyIncrements(new HashMap<>(increments), lastTimestamps);
+            failedFlushes = 0;
+        } catch (RuntimeException e) {
+            failedFlushes++;
+            if (!(e instanceof DataIntegrityViolationException) && failedFlushes < MAX_FLUSH_ATTEMPTS) {
+                LOGGER.error("Flushing {} hourly buckets failed ({} of {} attempts), keeping them for the next flush",
+                        increments.size(), failedFlushes, MAX_FLUSH_ATTEMPTS, e);
+                restore(snapshot);
+                return;
+            }
+            LOGGER.error("Flushing {} hourly buckets failed, applying them one by one", increments.size(), e);
+            dropped = applyEach(increments, lastTimestamps);
+            failedFlushes = 0;
+        }
+
+        deliveryTags.forEach(this::ack);
+        advanceCommitted(lastTimestamps);
+        if (!dropped.isEmpty()) {
+            committed.removeIf(measurement -> deviceDataService.toHourlyBucket(measurement).map(dropped::contains).orElse(true));
+        }
+        anomalyEngine.evaluateCommitted(committed);
+        LOGGER.debug("Flushed {} hourly buckets", increments.size());
+    }
+
+    /**
+     * Applies every bucket in its own transaction and returns the ones that failed, which are dropped.
+     */
+    private Set<HourlyBucket> applyEach(Map<HourlyBucket, Integer> increments, Map<HourlyBucket, String> lastTimestamps) {
+        Set<HourlyBucket> dropped = new HashSet<>();
+        increments.forEach((bucket, value) -> {
+            try {
+                deviceDataService.applyHourlyIncrements(new HashMap<>(Map.of(bucket, value)), lastTimestamps);
+            } catch (RuntimeException e) {
+                LOGGER.error("Dropping {} of device {} for hour {}", value, bucket.deviceId(), bucket.start(), e);
+                dropped.add(bucket);
+            }
+        });
+        return dropped;
+    }
+
+    private boolean alreadyCommitted(MeasurementMessageType measurement) {
+        LocalDateTime committed = committedUpTo.get(measurement.getDeviceId());
+        return committed != null && !LocalDateTime.parse(measurement.getTimestamp()).isAfter(committed);
+    }
+
+    // Dropped buckets advance the mark as well, their deliveries are acked and must not be counted on redelivery.
+    private void advanceCommitted(Map<HourlyBucket, String> lastTimestamps) {
+        lastTimestamps.forEach((bucket, timestamp) -> committedUpTo.merge(bucket.deviceId(), LocalDateTime.parse(timestamp),
+                (current, candidate) -> candidate.isAfter(current) ? candidate : current));
+    }
+
+    /**
+     * Puts a failed snapshot back in front of what was added since, so every channel keeps its measurements in
+     * delivery order and the newest timestamp of a bucket wins.
+     */
+    private void restore(Map<Channel, ChannelBuffer> snapshot) {
+        swapLock.writeLock().lock();
+        try {
+            buffers.forEach((channel, current) -> snapshot.merge(channel, current, ChannelBuffer::append));
+            buffers = new ConcurrentHashMap<>(snapshot);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void ack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, true);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Could not ack deliveries up to {}", deliveryTag, e);
+        }
+    }
+
+    private static class ChannelBuffer {
+        private final Map<HourlyBucket, AtomicInteger> values = new ConcurrentHashMap<>();
+        private final Map<HourlyBucket, String> lastTimestamps = new ConcurrentHashMap<>();
+        private final AtomicLong lastDeliveryTag = new AtomicLong();
+        // In the order the lanes added them, which keeps each device's measurements in delivery order.
+        private final Queue<MeasurementMessageType> measurements = new ConcurrentLinkedQueue<>();
+
+        private void add(HourlyBucket bucket, int value, String timestamp) {
+            values.computeIfAbsent(bucket, b -> new AtomicInteger()).addAndGet(value);
+            lastTimestamps.put(bucket, timestamp);
+        }
+
+        // Only called under the write lock, with the newer buffer as the argument.
+        private ChannelBuffer append(ChannelBuffer newer) {
+            newer.values.forEach((bucket, value) -> add(bucket, value.get(), newer.lastTimestamps.get(bucket)));
+            lastDeliveryTag.accumulateAndGet(newer.lastDeliveryTag.get(), Math::max);
+            measurements.addAll(newer.measurements);
+            return this;
+        }
+    }
+}
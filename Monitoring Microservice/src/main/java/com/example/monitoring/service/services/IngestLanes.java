@@ -0,0 +1,92 @@
+package com.example.monitoring.service.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fixed set of single-threaded lanes. A device always hashes onto the same lane, so work for one device
+ * is never processed concurrently while different devices proceed in parallel. Lanes run their work in
+ * submission order, so a single submitting thread keeps the per-device order.
+ */
+@Service
+public class IngestLanes {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngestLanes.class);
+
+    @Value("${monitoring.ingest.lanes}")
+    private int LANE_COUNT;
+
+    @Value("${monitoring.ingest.virtual-threads}")
+    private boolean VIRTUAL_THREADS;
+
+    private final List<ExecutorService> lanes = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        ThreadFactory threadFactory = VIRTUAL_THREADS
+                ? Thread.ofVirtual().name("ingest-lane-", 0).factory()
+                : Thread.ofPlatform().name("ingest-lane-", 0).daemon(true).factory();
+        for (int i = 0; i < Math.max(1, LANE_COUNT); i++) {
+            lanes.add(Executors.newSingleThreadExecutor(threadFactory));
+        }
+        LOGGER.info("Started {} ingest lanes (virtual threads: {})", lanes.size(), VIRTUAL_THREADS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        lanes.forEach(ExecutorService::shutdown);
+    }
+
+    public int laneCount() {
+        return lanes.size();
+    }
+
+    public int laneOf(UUID deviceId) {
+        return Math.floorMod(Objects.hashCode(deviceId), lanes.size());
+    }
+
+    /**
+     * Splits the items by device lane and queues the handler on every non-empty lane without waiting. The
+     * callback runs on the lane after the handler, with the handler's exception or null.
+     */
+    public <T> void dispatch(List<T> items, Function<T, UUID> deviceIdOf, Consumer<List<T>> handler,
+                             BiConsumer<List<T>, RuntimeException> onDone) {
+        List<List<T>> partitions = new ArrayList<>(lanes.size());
+        for (int i = 0; i < lanes.size(); i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (T item : items) {
+            partitions.get(laneOf(deviceIdOf.apply(item))).add(item);
+        }
+
+        for (int i = 0; i < partitions.size(); i++) {
+            List<T> partition = partitions.get(i);
+            if (partition.isEmpty()) {
+                continue;
+            }
+            lanes.get(i).execute(() -> {
+                RuntimeException error = null;
+                try {
+                    handler.accept(partition);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                onDone.accept(partition, error);
+            });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.monitoring.service.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts processed measurements and how long each took from delivery until its lane was done with it, which is
+ * before the accumulator buffers it, so the flush interval does not show up as latency. The heartbeat drains the
+ * counters on every beat, so the load balancers see the latency of the last interval.
+ */
+@Service
+public class IngestMetrics {
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    public void recordProcessed(long measurements, long totalLatencyNanos) {
+        processed.add(measurements);
+        latencyNanos.add(totalLatencyNanos);
+    }
+
+    public synchronized Snapshot drain() {
+        long measurements = processed.sumThenReset();
+        long latency = latencyNanos.sumThenReset();
+        return new Snapshot(measurements > 0 ? latency / 1e6 / measurements : 0);
+    }
+
+    /**
+     * @param processingLatencyMs  mean time from delivery until processed, 0 when nothing was processed
+     */
+    public record Snapshot(double processingLatencyMs) {
+    }
+}
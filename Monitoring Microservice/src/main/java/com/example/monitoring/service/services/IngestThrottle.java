@@ -0,0 +1,125 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.dtos.IngestStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket in front of the persistence stage. A batch that exceeds the configured rate is scheduled for
+ * later instead of holding a thread; its deliveries stay unacked meanwhile, so the prefetch window fills up
+ * and the broker stops pushing to this replica.
+ */
+@Service
+public class IngestThrottle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngestThrottle.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Value("${monitoring.ingest.rate-limit.per-second}")
+    private double RATE_LIMIT_PER_SECOND;
+
+    private long nextFreeNanos = System.nanoTime();
+
+    private long windowStartNanos = System.nanoTime();
+    private long windowCount;
+    private double currentRatePerSecond;
+
+    private long processedMeasurements;
+    private long throttledBatches;
+    private long totalHoldNanos;
+    private long maxHoldNanos;
+
+    private final LongAdder queueWaitCount = new LongAdder();
+    private final LongAdder totalQueueWaitMs = new LongAdder();
+    private final AtomicLong maxQueueWaitMs = new AtomicLong();
+
+    // One thread releasing in schedule order, so batches keep their delivery order
+    private final ScheduledExecutorService releaser = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ingest-throttle").daemon(true).factory());
+
+    @PreDestroy
+    public void stop() {
+        releaser.shutdown();
+    }
+
+    /**
+     * Runs the release as soon as the batch fits in the rate, inline when throttling is disabled. Must be
+     * called from a single thread, in delivery order.
+     */
+    public void submit(int permits, Runnable release) {
+        long holdNanos = reserve(permits);
+        if (RATE_LIMIT_PER_SECOND <= 0) {
+            release.run();
+            return;
+        }
+
+        if (holdNanos > 0) {
+            LOGGER.debug("Holding batch of {} for {} ms to respect the ingest rate", permits, TimeUnit.NANOSECONDS.toMillis(holdNanos));
+        }
+        // Scheduled even without a hold, so it cannot overtake a held batch
+        releaser.schedule(release, holdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records how long a measurement waited between being published and being processed.
+     */
+    public void recordQueueWait(long waitMs) {
+        queueWaitCount.increment();
+        totalQueueWaitMs.add(waitMs);
+        maxQueueWaitMs.accumulateAndGet(waitMs, Math::max);
+    }
+
+    public synchronized IngestStatsDTO getStats() {
+        rollWindow(System.nanoTime());
+        return new IngestStatsDTO(
+                RATE_LIMIT_PER_SECOND,
+                currentRatePerSecond,
+                processedMeasurements,
+                throttledBatches,
+                throttledBatches == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalHoldNanos / throttledBatches),
+                TimeUnit.NANOSECONDS.toMillis(maxHoldNanos),
+                queueWaitCount.sum() == 0 ? 0 : totalQueueWaitMs.sum() / queueWaitCount.sum(),
+                maxQueueWaitMs.get()
+        );
+    }
+
+    private synchronized long reserve(int permits) {
+        long now = System.nanoTime();
+        rollWindow(now);
+        windowCount += permits;
+        processedMeasurements += permits;
+
+        if (RATE_LIMIT_PER_SECOND <= 0) {
+            return 0;
+        }
+
+        // Unused capacity is kept for at most one second, which bounds the burst to one second of traffic.
+        nextFreeNanos = Math.max(nextFreeNanos, now - NANOS_PER_SECOND);
+        nextFreeNanos += (long) (permits * NANOS_PER_SECOND / RATE_LIMIT_PER_SECOND);
+
+        long holdNanos = Math.max(0, nextFreeNanos - now);
+        if (holdNanos > 0) {
+            throttledBatches++;
+            totalHoldNanos += holdNanos;
+            maxHoldNanos = Math.max(maxHoldNanos, holdNanos);
+        }
+        return holdNanos;
+    }
+
+    private void rollWindow(long now) {
+        long elapsed = now - windowStartNanos;
+        if (elapsed >= NANOS_PER_SECOND) {
+            currentRatePerSecond = (double) windowCount * NANOS_PER_SECOND / elapsed;
+            windowCount = 0;
+            windowStartNanos = now;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.monitoring.service.services;
+
+import com.example.monitoring.service.messaging.MessageProducer;
+import com.example.monitoring.service.messaging.MonitoringHeartbeatMessageType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Announces this replica's data-collection queue to the load balancers, which route only to queues whose
+ * replica has sent a heartbeat recently. Each beat also carries the processing latency since the previous one.
+ */
+@Service
+public class ReplicaHeartbeat {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaHeartbeat.class);
+
+    private final MessageProducer messageProducer;
+    private final IngestMetrics ingestMetrics;
+
+    @Value("${monitoring.replica-id}")
+    private String REPLICA_ID;
+
+    @Value("${rabbitmq.queue.data.collection}")
+    private String DATA_COLLECTION_QUEUE;
+
+    @Autowired
+    public ReplicaHeartbeat(MessageProducer messageProducer, IngestMetrics ingestMetrics) {
+        this.messageProducer = messageProducer;
+        this.ingestMetrics = ingestMetrics;
+    }
+
+    @Scheduled(fixedDelayString = "${monitoring.registry.heartbeat-interval-ms}")
+    public void beat() {
+        send(false);
+    }
+
+    @PreDestroy
+    public void leave() {
+        send(true);
+    }
+
+    private void send(boolean leaving) {
+        try {
+            IngestMetrics.Snapshot metrics = ingestMetrics.drain();
+            messageProducer.sendHeartbeat(new MonitoringHeartbeatMessageType(
+                    REPLICA_ID, DATA_COLLECTION_QUEUE, leaving, metrics.processingLatencyMs()));
+        } catch (Exception e) {
+            LOGGER.warn("Could not send heartbeat for {}: {}", DATA_COLLECTION_QUEUE, e.getMessage());
+        }
+    }
+}
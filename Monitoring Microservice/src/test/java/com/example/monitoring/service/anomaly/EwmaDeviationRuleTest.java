@@ -0,0 +1,51 @@
+package com.example.monitoring.service.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EwmaDeviationRuleTest {
+    private static final int OFFSET = 2;
+
+    private final EwmaDeviationRule rule = new EwmaDeviationRule(0.1, 3, 5);
+    private final double[] state = new double[OFFSET + 3 + 2];
+
+    @Test
+    void doesNotFlagDuringWarmup() {
+        for (double value : new double[]{10, 1000, 10, 1000, 10}) {
+            assertFalse(rule.evaluate(state, OFFSET, value, -1));
+        }
+        assertEquals(5, state[OFFSET]);
+    }
+
+    @Test
+    void flagsOnlyValuesFarFromTheMeanAfterWarmup() {
+        for (int i = 0; i < 50; i++) {
+            rule.evaluate(state, OFFSET, i % 2 == 0 ? 10 : 12, -1);
+        }
+
+        assertFalse(rule.evaluate(state, OFFSET, 12, -1));
+        assertTrue(rule.evaluate(state, OFFSET, 100, -1));
+    }
+
+    @Test
+    void startsTheMeanAtTheFirstValue() {
+        rule.evaluate(state, OFFSET, 42, -1);
+
+        assertEquals(42, state[OFFSET + 1]);
+        assertEquals(0, state[OFFSET + 2]);
+    }
+
+    @Test
+    void onlyTouchesItsOwnSlice() {
+        for (int i = 0; i < 10; i++) {
+            rule.evaluate(state, OFFSET, i, -1);
+        }
+
+        assertArrayEquals(new double[]{0, 0}, new double[]{state[0], state[1]});
+        assertArrayEquals(new double[]{0, 0}, new double[]{state[OFFSET + 3], state[OFFSET + 4]});
+    }
+}
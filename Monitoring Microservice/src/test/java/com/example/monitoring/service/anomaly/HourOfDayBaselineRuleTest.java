@@ -0,0 +1,41 @@
+package com.example.monitoring.service.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HourOfDayBaselineRuleTest {
+    private final HourOfDayBaselineRule rule = new HourOfDayBaselineRule(0.5, 3, 2);
+    private final double[] state = new double[rule.stateSize()];
+
+    @Test
+    void flagsValuesAboveTheBaselineOfTheSameHour() {
+        rule.evaluate(state, 0, 10, 14);
+        rule.evaluate(state, 0, 10, 14);
+
+        assertFalse(rule.evaluate(state, 0, 30, 14));
+        assertTrue(rule.evaluate(state, 0, 100, 14));
+    }
+
+    @Test
+    void keepsASeparateBaselinePerHour() {
+        rule.evaluate(state, 0, 10, 14);
+        rule.evaluate(state, 0, 10, 14);
+
+        assertFalse(rule.evaluate(state, 0, 100, 15));
+        assertEquals(100, state[15]);
+        assertEquals(10, state[14]);
+    }
+
+    @Test
+    void ignoresMeasurementsWithoutAnHour() {
+        assertFalse(rule.evaluate(state, 0, 100, -1));
+        assertFalse(rule.evaluate(state, 0, 100, 24));
+
+        for (double value : state) {
+            assertEquals(0, value);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.monitoring.service.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateOfChangeRuleTest {
+    private final RateOfChangeRule rule = new RateOfChangeRule(50);
+    private final double[] state = new double[rule.stateSize()];
+
+    @Test
+    void doesNotFlagTheFirstValue() {
+        assertFalse(rule.evaluate(state, 0, 500, -1));
+    }
+
+    @Test
+    void comparesAgainstThePreviousValue() {
+        rule.evaluate(state, 0, 0, -1);
+
+        assertFalse(rule.evaluate(state, 0, 40, -1));
+        assertTrue(rule.evaluate(state, 0, 100, -1));
+        assertFalse(rule.evaluate(state, 0, 120, -1));
+        assertTrue(rule.evaluate(state, 0, 60, -1));
+    }
+}
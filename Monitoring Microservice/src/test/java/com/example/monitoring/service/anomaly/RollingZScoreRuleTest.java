@@ -0,0 +1,53 @@
+package com.example.monitoring.service.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollingZScoreRuleTest {
+    private static final int WINDOW = 4;
+    private static final int OFFSET = 1;
+
+    private final RollingZScoreRule rule = new RollingZScoreRule(WINDOW, 2);
+    private final double[] state = new double[OFFSET + rule.stateSize()];
+
+    @Test
+    void doesNotFlagUntilTheWindowIsFull() {
+        for (double value : new double[]{9, 11, 9, 1000}) {
+            assertFalse(rule.evaluate(state, OFFSET, value, -1));
+        }
+    }
+
+    @Test
+    void flagsValuesOutsideTheWindowDeviation() {
+        feed(9, 11, 9, 11);
+
+        assertTrue(rule.evaluate(state, OFFSET, 20, -1));
+    }
+
+    @Test
+    void evictsTheOldestValueFromTheSums() {
+        feed(9, 11, 9, 11, 100, 102, 100, 102);
+
+        assertEquals(WINDOW, state[OFFSET]);
+        assertEquals(404, state[OFFSET + 2], 1e-9);
+        assertEquals(2 * 100 * 100 + 2 * 102 * 102, state[OFFSET + 3], 1e-9);
+        assertFalse(rule.evaluate(state, OFFSET, 101, -1));
+        assertTrue(rule.evaluate(state, OFFSET, 9, -1));
+    }
+
+    @Test
+    void doesNotFlagAConstantWindow() {
+        feed(10, 10, 10, 10);
+
+        assertFalse(rule.evaluate(state, OFFSET, 50, -1));
+    }
+
+    private void feed(double... values) {
+        for (double value : values) {
+            rule.evaluate(state, OFFSET, value, -1);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.monitoring.service.benchmark;
+
+import com.example.monitoring.service.MonitoringService;
+import com.example.monitoring.service.entities.DeviceData;
+import com.example.monitoring.service.repositories.DeviceDataRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.rabbitmq.RabbitMQContainer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Compares the hourly consumption query before and after it was moved into SQL: loading every DeviceData entity
+ * of the day and summing by hour in Java, against the single grouped query of sumHourlyValues.
+ * Excluded from the normal build; run with: mvn -P benchmark test -Dtest=HourlyConsumptionBenchmarkTest
+ */
+@Tag("benchmark")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = MonitoringService.class, properties = {
+        "monitoring.device-resync.enabled=false",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+class HourlyConsumptionBenchmarkTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HourlyConsumptionBenchmarkTest.class);
+    private static final int MAX_DEVICES = 10_000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Container
+    @ServiceConnection
+    static RabbitMQContainer rabbitmq = new RabbitMQContainer("rabbitmq:4-management-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DeviceDataRepository deviceDataRepository;
+
+    private final LocalDate date = LocalDate.now().withDayOfMonth(1);
+    private List<UUID> deviceIds;
+
+    // Every device gets all 24 hours of the day, so both paths read the same rows.
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO devices (id, maximum_consumption_value, version) " +
+                "SELECT gen_random_uuid(), 100, 1 FROM generate_series(1, ?)", MAX_DEVICES);
+        deviceIds = jdbcTemplate.queryForList("SELECT id FROM devices", UUID.class);
+        jdbcTemplate.update("INSERT INTO device_data (device_id, bucket_start, value) " +
+                "SELECT d.id, ?::timestamp + make_interval(hours => h), (random() * 100)::int " +
+                "FROM devices d CROSS JOIN generate_series(0, 23) h", date.atStartOfDay());
+        jdbcTemplate.execute("ANALYZE device_data");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 10_000})
+    void compareEntityAndSqlSums(int devices) {
+        List<UUID> ids = deviceIds.subList(0, devices);
+
+        long[] expected = sumByLoadingEntities(ids);
+        long[] actual = deviceDataRepository.sumHourlyValues(ids, date);
+        assertArrayEquals(expected, actual);
+
+        double entityMs = medianMillis(() -> sumByLoadingEntities(ids));
+        double sqlMs = medianMillis(() -> transactionTemplate.execute(status -> deviceDataRepository.sumHourlyValues(ids, date)));
+        LOGGER.info("{} devices: entities {} ms, sumHourlyValues {} ms ({}x)", devices,
+                String.format("%.2f", entityMs), String.format("%.2f", sqlMs), String.format("%.1f", entityMs / sqlMs));
+    }
+
+    // The path replaced by sumHourlyValues.
+    private long[] sumByLoadingEntities(List<UUID> ids) {
+        return transactionTemplate.execute(status -> {
+            long[] totals = new long[24];
+            entityManager.createQuery("SELECT d FROM DeviceData d WHERE d.deviceId IN :ids " +
+                            "AND d.bucketStart >= :from AND d.bucketStart < :to", DeviceData.class)
+                    .setParameter("ids", ids)
+                    .setParameter("from", date.atStartOfDay())
+                    .setParameter("to", date.plusDays(1).atStartOfDay())
+                    .getResultList()
+                    .forEach(deviceData -> totals[deviceData.getBucketStart().getHour()] += deviceData.getValue());
+            entityManager.clear();
+            return totals;
+        });
+    }
+
+    private static double medianMillis(Supplier<?> query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.get();
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long started = System.nanoTime();
+            query.get();
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        return nanos[MEASURED_RUNS / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.monitoring.service.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderedAcksTest {
+    private final OrderedAcks acks = new OrderedAcks();
+    private final List<Long> acked = new ArrayList<>();
+
+    @Test
+    void acksOnlyTheContiguousFinishedPrefix() {
+        acks.register(List.of(1L, 2L, 3L, 4L));
+
+        acks.complete(List.of(2L), false, acked::add);
+        assertTrue(acked.isEmpty());
+
+        acks.complete(List.of(1L), false, acked::add);
+        assertEquals(List.of(2L), acked);
+
+        acks.complete(List.of(4L), false, acked::add);
+        assertEquals(List.of(2L), acked);
+
+        acks.complete(List.of(3L), false, acked::add);
+        assertEquals(List.of(2L, 4L), acked);
+    }
+
+    @Test
+    void neverAcksARequeuedDelivery() {
+        acks.register(List.of(1L, 2L, 3L));
+
+        acks.complete(List.of(3L), true, acked::add);
+        acks.complete(List.of(1L), true, acked::add);
+        assertTrue(acked.isEmpty());
+
+        acks.complete(List.of(2L), false, acked::add);
+        assertEquals(List.of(2L), acked);
+    }
+
+    @Test
+    void passesARequeuedDeliveryThatBlockedTheAck() {
+        acks.register(List.of(1L, 2L, 3L));
+        acks.complete(List.of(2L, 3L), false, acked::add);
+
+        acks.complete(List.of(1L), true, acked::add);
+        assertEquals(List.of(3L), acked);
+    }
+
+    @Test
+    void keepsLaterBatchesOutstanding() {
+        acks.register(List.of(1L, 2L));
+        acks.register(List.of(3L, 4L));
+
+        acks.complete(List.of(1L, 2L, 4L), false, acked::add);
+        assertEquals(List.of(2L), acked);
+    }
+}
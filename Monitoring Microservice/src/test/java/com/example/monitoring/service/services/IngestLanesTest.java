@@ -0,0 +1,115 @@
+package com.example.monitoring.service.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestLanesTest {
+    private static final int LANES = 4;
+
+    private final IngestLanes ingestLanes = new IngestLanes();
+
+    @BeforeEach
+    void start() {
+        ReflectionTestUtils.setField(ingestLanes, "LANE_COUNT", LANES);
+        ReflectionTestUtils.setField(ingestLanes, "VIRTUAL_THREADS", false);
+        ingestLanes.start();
+    }
+
+    @AfterEach
+    void stop() {
+        ingestLanes.stop();
+    }
+
+    @Test
+    void mapsADeviceToOneLane() {
+        UUID deviceId = UUID.randomUUID();
+
+        assertEquals(LANES, ingestLanes.laneCount());
+        assertEquals(ingestLanes.laneOf(deviceId), ingestLanes.laneOf(deviceId));
+        assertTrue(ingestLanes.laneOf(deviceId) >= 0 && ingestLanes.laneOf(deviceId) < LANES);
+    }
+
+    @Test
+    void processesEachDeviceOnOneThreadInSubmissionOrder() throws InterruptedException {
+        List<UUID> devices = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            devices.add(UUID.randomUUID());
+        }
+
+        int batches = 50;
+        Map<UUID, List<Integer>> sequences = new ConcurrentHashMap<>();
+        Map<UUID, Set<String>> threads = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(batches * devices.size());
+        for (int batch = 0; batch < batches; batch++) {
+            List<Item> items = new ArrayList<>();
+            for (UUID deviceId : devices) {
+                items.add(new Item(deviceId, batch));
+            }
+            ingestLanes.dispatch(items, Item::deviceId, lane -> lane.forEach(item -> {
+                // Each device is only ever touched by its own lane, so its list needs no synchronization.
+                sequences.computeIfAbsent(item.deviceId(), id -> new ArrayList<>()).add(item.sequence());
+                threads.computeIfAbsent(item.deviceId(), id -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+            }), (lane, error) -> lane.forEach(item -> done.countDown()));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (UUID deviceId : devices) {
+            List<Integer> expected = new ArrayList<>();
+            for (int batch = 0; batch < batches; batch++) {
+                expected.add(batch);
+            }
+            assertEquals(expected, sequences.get(deviceId));
+            assertEquals(1, threads.get(deviceId).size());
+        }
+    }
+
+    @Test
+    void passesAHandlerFailureOnlyToItsLane() throws InterruptedException {
+        UUID failing = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        while (ingestLanes.laneOf(other) == ingestLanes.laneOf(failing)) {
+            other = UUID.randomUUID();
+        }
+
+        RuntimeException failure = new IllegalStateException("write failed");
+        Map<UUID, RuntimeException> errors = new ConcurrentHashMap<>();
+        Set<UUID> succeeded = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(2);
+        ingestLanes.dispatch(List.of(new Item(failing, 0), new Item(other, 0)), Item::deviceId, lane -> {
+            if (lane.getFirst().deviceId().equals(failing)) {
+                throw failure;
+            }
+        }, (lane, error) -> {
+            if (error != null) {
+                errors.put(lane.getFirst().deviceId(), error);
+            } else {
+                succeeded.add(lane.getFirst().deviceId());
+            }
+            done.countDown();
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertSame(failure, errors.get(failing));
+        assertNull(errors.get(other));
+        assertEquals(Set.of(other), succeeded);
+    }
+
+    private record Item(UUID deviceId, int sequence) {
+    }
+}
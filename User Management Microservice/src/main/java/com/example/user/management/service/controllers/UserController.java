@@ -3,6 +3,7 @@ package com.example.user.management.service.controllers;
 import com.example.user.management.service.common.UserRole;
 import com.example.user.management.service.common.security.RequireRole;
 import com.example.user.management.service.dtos.UserDTO;
+import com.example.user.management.service.dtos.UserSummaryPageDTO;
 import com.example.user.management.service.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -64,6 +65,34 @@ public class UserController {
         return ResponseEntity.ok(userService.findUsers());
     }
 
+    @GetMapping("/admin/list-users")
+    @RequireRole({UserRole.ADMIN})
+    @Operation(summary = "List users page by page with filtering and sorting - Requires JWT (Admin only)",
+               security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponse(
+        responseCode = "200",
+        description = "Page of users retrieved successfully. Pass nextCursor as cursor to get the next page",
+        content = @Content(schema = @Schema(implementation = UserSummaryPageDTO.class))
+    )
+    @ApiResponse(responseCode = "400", description = "Unknown sort field or direction, or invalid cursor")
+    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT")
+    @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    public ResponseEntity<UserSummaryPageDTO> listUsers(
+            @Parameter(description = "Part of the first or last name, case insensitive")
+            @RequestParam(required = false) String name,
+            @Parameter(description = "Part of the email, case insensitive")
+            @RequestParam(required = false) String email,
+            @Parameter(description = "first-name, last-name or email")
+            @RequestParam(defaultValue = "email") String sort,
+            @Parameter(description = "asc or desc")
+            @RequestParam(defaultValue = "asc") String direction,
+            @Parameter(description = "nextCursor of the previous page, omitted for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Users per page, capped by the server")
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(userService.findUserSummaries(name, email, sort, direction, cursor, size));
+    }
+
     @GetMapping("/user/get-user/{id}")
     @RequireRole({UserRole.USER, UserRole.ADMIN})
     @Operation(summary = "Get user by ID - Requires JWT (User/Admin)",
@@ -0,0 +1,16 @@
+package com.example.user.management.service.dtos;
+
+import java.util.UUID;
+
+/**
+ * The columns of the admin user list. Fetched as a projection, so no other column is read.
+ */
+public interface UserSummaryDTO {
+    UUID getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+}
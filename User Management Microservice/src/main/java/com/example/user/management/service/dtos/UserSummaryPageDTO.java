@@ -0,0 +1,41 @@
+package com.example.user.management.service.dtos;
+
+import java.util.List;
+
+public class UserSummaryPageDTO {
+    private List<UserSummaryDTO> items;
+    // Pass as "cursor" with the same filters and sort to get the next page, null on the last page
+    private String nextCursor;
+
+    public UserSummaryPageDTO() {
+    }
+
+    public UserSummaryPageDTO(List<UserSummaryDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserSummaryDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UserSummaryDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSummaryPageDTO{" +
+                "items=" + items +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
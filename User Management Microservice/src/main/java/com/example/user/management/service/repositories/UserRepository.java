@@ -1,6 +1,11 @@
 package com.example.user.management.service.repositories;
 
+import com.example.user.management.service.dtos.UserSummaryDTO;
 import com.example.user.management.service.entities.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,4 +15,15 @@ import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
+
+    /**
+     * Users whose first or last name contains name and whose email contains email, from the keyset position on.
+     */
+    default Window<UserSummaryDTO> findSummaries(String name, String email, ScrollPosition position, Sort sort, Limit limit) {
+        return findByFirstNameContainingIgnoreCaseAndEmailContainingIgnoreCaseOrLastNameContainingIgnoreCaseAndEmailContainingIgnoreCase(
+                name, email, name, email, position, sort, limit);
+    }
+
+    Window<UserSummaryDTO> findByFirstNameContainingIgnoreCaseAndEmailContainingIgnoreCaseOrLastNameContainingIgnoreCaseAndEmailContainingIgnoreCase(
+            String firstName, String firstNameEmail, String lastName, String lastNameEmail, ScrollPosition position, Sort sort, Limit limit);
 }
@@ -1,21 +1,33 @@
 package com.example.user.management.service.services;
 
 
+import com.example.user.management.service.common.UserSortField;
 import com.example.user.management.service.dtos.UserDTO;
+import com.example.user.management.service.dtos.UserSummaryDTO;
+import com.example.user.management.service.dtos.UserSummaryPageDTO;
 import com.example.user.management.service.dtos.builders.UserBuilder;
 import com.example.user.management.service.entities.User;
+import com.example.user.management.service.handlers.exceptions.model.BadRequestException;
 import com.example.user.management.service.handlers.exceptions.model.ResourceNotFoundException;
 import com.example.user.management.service.repositories.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +38,9 @@ public class UserService {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
 
+    @Value("${user.max-page-size}")
+    private int MAX_PAGE_SIZE;
+
     @Autowired
     public UserService(UserRepository userRepository) {
         this.userRepository = userRepository;
@@ -39,6 +54,39 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of the admin user list, filtered and sorted in the database. The cursor is the nextCursor of the
+     * previous page, or null for the first one.
+     */
+    @Transactional(readOnly = true)
+    public UserSummaryPageDTO findUserSummaries(String name, String email, String sort, String direction, String cursor, int size) {
+        UserSortField sortField;
+        Sort.Direction sortDirection;
+        try {
+            sortField = UserSortField.fromString(sort);
+            sortDirection = Sort.Direction.fromString(direction);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("sort " + sort + " " + direction);
+        }
+
+        String nameFilter = name != null ? name : "";
+        String emailFilter = email != null ? email : "";
+        String scope = cursorScope(sortField, sortDirection, nameFilter, emailFilter);
+
+        Window<UserSummaryDTO> window = userRepository.findSummaries(
+                nameFilter,
+                emailFilter,
+                cursor != null ? decodeCursor(cursor, sortField, scope) : ScrollPosition.keyset(),
+                Sort.by(sortDirection, sortField.getProperty()).and(Sort.by(sortDirection, "id")),
+                Limit.of(Math.clamp(size, 1, MAX_PAGE_SIZE))
+        );
+
+        String nextCursor = window.hasNext()
+                ? encodeCursor((KeysetScrollPosition) window.positionAt(window.size() - 1), sortField, scope)
+                : null;
+        return new UserSummaryPageDTO(window.getContent(), nextCursor);
+    }
+
     @Transactional(readOnly = true)
     public UserDTO findUserById(UUID id) {
         Optional<User> user = userRepository.findById(id);
@@ -85,4 +133,28 @@ public class UserService {
         }
         userRepository.deleteById(id);
     }
+
+    // The cursor carries the sort and a hash of the filters, so a cursor taken under another sort, direction or
+    // filter is rejected instead of skipping rows.
+    private static String cursorScope(UserSortField sortField, Sort.Direction direction, String... filters) {
+        int filterHash = String.join("\n", filters).toLowerCase(Locale.ROOT).hashCode();
+        return sortField.name() + ":" + direction.name() + ":" + Integer.toHexString(filterHash);
+    }
+
+    private static String encodeCursor(KeysetScrollPosition position, UserSortField sortField, String scope) {
+        String cursor = scope + "\n" + position.getKeys().get("id") + "\n" + position.getKeys().get(sortField.getProperty());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeysetScrollPosition decodeCursor(String cursor, UserSortField sortField, String scope) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+            if (parts.length != 3 || !parts[0].equals(scope)) {
+                throw new BadRequestException("cursor " + cursor);
+            }
+            return ScrollPosition.forward(Map.of(sortField.getProperty(), parts[2], "id", UUID.fromString(parts[1])));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("cursor " + cursor);
+        }
+    }
 }